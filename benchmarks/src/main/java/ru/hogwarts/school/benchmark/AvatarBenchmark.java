@@ -0,0 +1,90 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvatarBenchmark {
+
+    @Param({"128", "512"})
+    public int imageSide;
+
+    private ConfigurableApplicationContext context;
+    private Path avatarsDir;
+    private AvatarService avatarService;
+    private Long studentId;
+    private byte[] image;
+    private long uploads;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        avatarsDir = Files.createTempDirectory("benchmark-avatars-");
+        context = SchoolContexts.startH2(avatarsDir);
+        avatarService = context.getBean(AvatarService.class);
+        studentId = context.getBean(StudentRepository.class).save(new Student("Harry Potter", 17)).getId();
+        image = SeedData.jpeg(imageSide, new Random(imageSide));
+        avatarService.uploadAvatar(studentId, avatar());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(avatarsDir);
+    }
+
+    @Benchmark
+    public void upload() throws IOException {
+        avatarService.uploadAvatar(studentId, avatar());
+    }
+
+    @Benchmark
+    public long download() throws IOException {
+        try (InputStream is = avatarService.loadAvatar(avatarService.findAvatar(studentId)).getInputStream()) {
+            return is.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private MockMultipartFile avatar() {
+        // JPEG readers ignore bytes after the end-of-image marker, so a counter there keeps every upload distinct
+        return new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", withTrailer(image, ++uploads));
+    }
+
+    private byte[] withTrailer(byte[] content, long counter) {
+        byte[] result = new byte[content.length + Long.BYTES];
+        System.arraycopy(content, 0, result, 0, content.length);
+        for (int i = 0; i < Long.BYTES; i++) {
+            result[content.length + i] = (byte) (counter >>> (8 * i));
+        }
+        return result;
+    }
+}
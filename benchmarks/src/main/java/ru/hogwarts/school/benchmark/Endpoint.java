@@ -0,0 +1,76 @@
+package ru.hogwarts.school.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One kind of request in the mix, with the latencies and failures recorded for it.
+ */
+final class Endpoint {
+
+    private static final Map<String, Function<SeedData, String>> PATHS = Map.of(
+            "student-by-id", seed -> "/student/id/" + seed.randomStudentId(),
+            "students-by-age", seed -> "/student?age=" + (11 + (int) (seed.randomStudentId() % 7)),
+            "student-name-prefix", seed -> "/student/name-prefix?prefix=Her&limit=20",
+            "student-statistics", seed -> "/student/statistics",
+            "faculty-students", seed -> "/faculty/" + seed.randomFacultyName().replace(" ", "%20") + "/students",
+            "avatar-download", seed -> "/avatar/" + seed.randomAvatarStudentId() + "/avatar",
+            "avatar-preview", seed -> "/avatar/" + seed.randomAvatarStudentId() + "/avatar/preview");
+
+    private final String name;
+    private final int weight;
+    private final Function<SeedData, String> path;
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder failures = new LongAdder();
+
+    private Endpoint(String name, int weight, Function<SeedData, String> path) {
+        this.name = name;
+        this.weight = weight;
+        this.path = path;
+    }
+
+    static Endpoint of(String name, int weight) {
+        Function<SeedData, String> path = PATHS.get(name);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown endpoint " + name + ", expected one of " + PATHS.keySet());
+        }
+        return new Endpoint(name, weight, path);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int weight() {
+        return weight;
+    }
+
+    String path(SeedData seed) {
+        return path.apply(seed);
+    }
+
+    Histogram latencies() {
+        return latencies;
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    void record(long latencyMicros, boolean failed) {
+        latencies.recordValue(Math.min(latencyMicros, latencies.getHighestTrackableValue()));
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    void reset() {
+        latencies.reset();
+        failures.reset();
+    }
+}
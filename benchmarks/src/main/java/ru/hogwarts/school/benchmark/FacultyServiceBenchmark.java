@@ -0,0 +1,39 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacultyServiceBenchmark {
+
+    @Benchmark
+    public Faculty findFaculty(SchoolBackend school) {
+        return school.facultyService.findFaculty(school.randomFacultyId());
+    }
+
+    @Benchmark
+    public List<FacultyDto> findByColorOrName(SchoolBackend school) {
+        return school.facultyService.findByColorOrName(school.randomFacultyName());
+    }
+
+    @Benchmark
+    public Collection<Student> findByStudents(SchoolBackend school) {
+        return school.facultyService.findByStudents(school.randomFacultyName());
+    }
+}
@@ -0,0 +1,136 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.data.domain.Pageable;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Map-backed stand-ins for the repositories, answering only the queries the benchmarked service
+ * methods issue, so the service overhead can be measured without a database.
+ */
+final class InMemoryRepositories {
+
+    private final NavigableMap<Long, Student> students = new TreeMap<>();
+    private final NavigableMap<String, List<Student>> studentsByName = new TreeMap<>();
+    private final NavigableMap<String, List<Student>> studentsByLowerName = new TreeMap<>();
+    private final Map<Long, Faculty> faculties = new TreeMap<>();
+
+    Faculty addFaculty(String name, String color) {
+        Faculty faculty = new Faculty(name, color);
+        faculty.setId((long) faculties.size() + 1);
+        faculty.setStudentList(new ArrayList<>());
+        faculties.put(faculty.getId(), faculty);
+        return faculty;
+    }
+
+    Student addStudent(String name, int age, Faculty faculty) {
+        Student student = new Student(name, age);
+        student.setId((long) students.size() + 1);
+        student.setFaculty(faculty);
+        faculty.getStudentList().add(student);
+        students.put(student.getId(), student);
+        studentsByName.computeIfAbsent(name, key -> new ArrayList<>()).add(student);
+        studentsByLowerName.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(student);
+        return student;
+    }
+
+    StudentRepository studentRepository() {
+        return proxy(StudentRepository.class, "InMemoryStudentRepository", (name, args) -> switch (name) {
+            case "findWithFacultyById" -> Optional.ofNullable(students.get((Long) args[0]));
+            case "findWithFacultyByIdIn" -> ((Collection<?>) args[0]).stream()
+                    .map(students::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            case "countByAgeBetween" -> students.values().stream()
+                    .filter(student -> student.getAge() >= (int) args[0] && student.getAge() <= (int) args[1])
+                    .count();
+            case "findByAgeBetween" -> students.values().stream()
+                    .filter(student -> student.getAge() >= (int) args[0] && student.getAge() <= (int) args[1])
+                    .toList();
+            case "findByNamePrefix" -> infos(studentsByName.subMap((String) args[0], (String) args[1]).values().stream(),
+                    (Pageable) args[3]);
+            case "findByNamePrefixIgnoreCase" -> {
+                String prefix = unescapePrefix((String) args[0]);
+                yield infos(studentsByLowerName.tailMap(prefix, true).entrySet().stream()
+                        .takeWhile(entry -> entry.getKey().startsWith(prefix))
+                        .map(Map.Entry::getValue), (Pageable) args[1]);
+            }
+            case "findPageAfter" -> infos(students.tailMap((Long) args[0], false).values().stream().map(List::of),
+                    (Pageable) args[1]);
+            case "countByAge" -> rows(students.values().stream()
+                    .collect(Collectors.groupingBy(Student::getAge, Collectors.counting())));
+            case "countByFaculty" -> rows(students.values().stream()
+                    .collect(Collectors.groupingBy(student -> student.getFaculty().getId(), Collectors.counting())));
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    FacultyRepository facultyRepository() {
+        return proxy(FacultyRepository.class, "InMemoryFacultyRepository", (name, args) -> switch (name) {
+            case "findById" -> Optional.ofNullable(faculties.get((Long) args[0]));
+            case "findAll" -> List.copyOf(faculties.values());
+            case "findFacultiesByColorIgnoreCaseOrNameIgnoreCase" -> faculties.values().stream()
+                    .filter(faculty -> faculty.getColor().equalsIgnoreCase((String) args[0])
+                            || faculty.getName().equalsIgnoreCase((String) args[1]))
+                    .toList();
+            case "findWithStudentsByNameIgnoreCase" -> faculties.values().stream()
+                    .filter(faculty -> faculty.getName().equalsIgnoreCase((String) args[0]))
+                    .findFirst();
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    private List<StudentInfo> infos(Stream<List<Student>> groups, Pageable pageable) {
+        return groups.flatMap(Collection::stream)
+                .limit(pageable.getPageSize())
+                .map(student -> new StudentInfo(student.getId(), student.getName(), student.getAge(),
+                        student.getFaculty().getId()))
+                .toList();
+    }
+
+    private <K> List<Object[]> rows(Map<K, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+    }
+
+    private String unescapePrefix(String pattern) {
+        return pattern.substring(0, pattern.length() - 1)
+                .replace("!_", "_")
+                .replace("!%", "%")
+                .replace("!!", "!");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, String description, Query query) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> description;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == Objects.requireNonNull(args)[0];
+            default -> query.answer(method.getName(), args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface Query {
+        Object answer(String method, Object[] args);
+    }
+}
@@ -0,0 +1,230 @@
+package ru.hogwarts.school.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.FileSystemUtils;
+import ru.hogwarts.school.config.TaskExecutors;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application on an in-memory H2 database, seeds it and drives a weighted mix of requests at it.
+ * Requests are sent on a fixed schedule of {@code load.rate} per second, and each latency is measured from the
+ * time the request was due, not from when it was sent. A server that stalls is charged for every request that
+ * fell behind schedule, which a closed loop of clients waiting for their previous response would omit. At most
+ * {@code load.concurrency} requests are in flight, on virtual threads where the runtime has them.
+ * <p>
+ * By default the mix runs twice, against Tomcat on platform threads and then on virtual threads, each on a freshly
+ * seeded server, and the two runs are compared at the end. Latencies are reported per endpoint and written as
+ * HdrHistogram percentile files to {@code target/load-test/<threads>}.
+ * Build with {@code mvn -Pbenchmarks package} in the project root, then run
+ * {@code java -cp benchmarks/target/benchmarks.jar ru.hogwarts.school.benchmark.LoadTestRunner}.
+ */
+public final class LoadTestRunner {
+
+    private final LoadTestSettings settings;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int totalWeight;
+    private final SimpleAsyncTaskExecutor clients = TaskExecutors.threadPerTask("load-client-", true);
+
+    private LoadTestRunner(LoadTestSettings settings) {
+        this.settings = settings;
+        settings.mix().forEach((name, weight) -> endpoints.add(Endpoint.of(name, weight)));
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner(LoadTestSettings.fromSystemProperties()).run();
+    }
+
+    private void run() throws Exception {
+        List<String> summary = new ArrayList<>();
+        for (String serverThreads : settings.serverThreads()) {
+            summary.add(measure(serverThreads));
+        }
+        if (summary.size() > 1) {
+            System.out.printf("%n%-10s %10s %8s %10s %10s %10s%n",
+                    "threads", "requests", "errors", "req/s", "p99 ms", "max ms");
+            summary.forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Runs the warmup and the measured mix against a fresh server on the given Tomcat threads and returns the
+     * line that sums the run up across endpoints.
+     */
+    private String measure(String serverThreads) throws Exception {
+        boolean virtualThreads = "virtual".equals(serverThreads);
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            System.out.println("Virtual threads need Java 21, this run measures platform threads");
+        }
+        Path avatarsDir = Files.createTempDirectory("load-test-avatars-");
+        try (ConfigurableApplicationContext context = SchoolContexts.startServer(avatarsDir, virtualThreads)) {
+            System.out.printf("%nTomcat on %s threads%n", serverThreads);
+            System.out.printf("Seeding %d students, %d avatars%n", settings.students(), settings.avatars());
+            SeedData seed = SeedData.seed(context, settings.students(), settings.avatars());
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+
+            System.out.printf("Warming up for %s%n", settings.warmup());
+            drive(client, baseUrl, seed, settings.warmup());
+            endpoints.forEach(Endpoint::reset);
+
+            if (settings.rate() > 0) {
+                System.out.printf("Measuring %d requests/s, at most %d in flight, for %s%n",
+                        settings.rate(), settings.concurrency(), settings.duration());
+            } else {
+                System.out.printf("Measuring %d closed-loop clients for %s; latencies exclude the time a stalled "
+                        + "server kept clients from sending%n", settings.concurrency(), settings.duration());
+            }
+            drive(client, baseUrl, seed, settings.duration());
+            report(System.out, settings.duration());
+            writeHistograms(Path.of("target", "load-test", serverThreads));
+            return summarize(serverThreads, settings.duration());
+        } finally {
+            FileSystemUtils.deleteRecursively(avatarsDir);
+        }
+    }
+
+    private void drive(HttpClient client, String baseUrl, SeedData seed, Duration duration) throws InterruptedException {
+        if (settings.rate() > 0) {
+            driveAtRate(client, baseUrl, seed, duration);
+        } else {
+            driveClosedLoop(client, baseUrl, seed, duration);
+        }
+    }
+
+    private void driveAtRate(HttpClient client, String baseUrl, SeedData seed, Duration duration)
+            throws InterruptedException {
+        long intervalNanos = Math.max(1, 1_000_000_000L / settings.rate());
+        long requests = duration.toNanos() / intervalNanos;
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            // a request waiting here for a slot is already late, and the wait is part of its latency
+            inFlight.acquire();
+            clients.execute(() -> {
+                try {
+                    send(client, baseUrl, seed, due);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(settings.concurrency());
+    }
+
+    private void driveClosedLoop(HttpClient client, String baseUrl, SeedData seed, Duration duration)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            clients.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline && send(client, baseUrl, seed, System.nanoTime())) {
+                        // next request as soon as the previous one completes
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+    }
+
+    /**
+     * Sends one request of the mix and records its latency from {@code due}. Returns false when interrupted.
+     */
+    private boolean send(HttpClient client, String baseUrl, SeedData seed, long due) {
+        Endpoint endpoint = pick();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path(seed))).build();
+        boolean failed;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 400;
+        } catch (IOException e) {
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        endpoint.record((System.nanoTime() - due) / 1_000, failed);
+        return true;
+    }
+
+    private Endpoint pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight();
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private void report(PrintStream out, Duration duration) {
+        out.printf("%-22s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Endpoint endpoint : endpoints) {
+            Histogram latencies = endpoint.latencies();
+            out.printf("%-22s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    endpoint.name(),
+                    latencies.getTotalCount(),
+                    endpoint.failures(),
+                    latencies.getTotalCount() * 1000.0 / Math.max(1, duration.toMillis()),
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private String summarize(String serverThreads, Duration duration) {
+        Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long failures = 0;
+        for (Endpoint endpoint : endpoints) {
+            all.add(endpoint.latencies());
+            failures += endpoint.failures();
+        }
+        return String.format("%-10s %10d %8d %10.1f %10.2f %10.2f",
+                serverThreads,
+                all.getTotalCount(),
+                failures,
+                all.getTotalCount() * 1000.0 / Math.max(1, duration.toMillis()),
+                all.getValueAtPercentile(99) / 1000.0,
+                all.getMaxValue() / 1000.0);
+    }
+
+    private void writeHistograms(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (Endpoint endpoint : endpoints) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(endpoint.name() + ".hgrm")))) {
+                endpoint.latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.printf("Percentile distributions written to %s%n", dir.toAbsolutePath());
+    }
+}
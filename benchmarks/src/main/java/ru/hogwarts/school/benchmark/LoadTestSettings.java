@@ -0,0 +1,63 @@
+package ru.hogwarts.school.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read from system properties, e.g. {@code -Dload.rate=5000 -Dload.mix=student-by-id:8,avatar-download:2}.
+ * A {@code load.rate} of 0 runs closed-loop: {@code load.concurrency} clients send back to back.
+ * {@code load.server-threads} lists the Tomcat thread kinds to measure one after the other, {@code platform},
+ * {@code virtual} or both.
+ */
+record LoadTestSettings(int students,
+                        int avatars,
+                        int rate,
+                        int concurrency,
+                        Duration warmup,
+                        Duration duration,
+                        List<String> serverThreads,
+                        Map<String, Integer> mix) {
+
+    static final String DEFAULT_MIX = "student-by-id:40,students-by-age:10,student-name-prefix:10,"
+            + "student-statistics:5,faculty-students:10,avatar-download:15,avatar-preview:10";
+
+    static final List<String> SERVER_THREADS = List.of("platform", "virtual");
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("load.students", 10_000),
+                Integer.getInteger("load.avatars", 200),
+                Integer.getInteger("load.rate", 2000),
+                Integer.getInteger("load.concurrency", 200),
+                Duration.parse(System.getProperty("load.warmup", "PT10S")),
+                Duration.parse(System.getProperty("load.duration", "PT60S")),
+                parseServerThreads(System.getProperty("load.server-threads", String.join(",", SERVER_THREADS))),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)));
+    }
+
+    private static List<String> parseServerThreads(String serverThreads) {
+        List<String> kinds = new ArrayList<>();
+        for (String kind : serverThreads.split(",")) {
+            if (!SERVER_THREADS.contains(kind.trim())) {
+                throw new IllegalArgumentException("Server threads are one of " + SERVER_THREADS + ", got " + kind);
+            }
+            kinds.add(kind.trim());
+        }
+        return kinds;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like name:weight, got " + entry);
+            }
+            weights.put(parts[0], Integer.valueOf(parts[1]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hogwarts.school.index.NameIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name search on an index of {@link #names} generated names. The setup prints the heap the index retains,
+ * measured as the used heap after a full GC with and without it; run with {@code -prof gc} for the
+ * allocation per search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class NameIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Harry", "Hermione", "Ron", "Ginny", "Neville", "Luna", "Draco",
+            "Cho", "Cedric", "Fred", "George", "Percy", "Dean", "Seamus", "Lavender", "Parvati"};
+    private static final String[] LAST_NAMES = {"Potter", "Granger", "Weasley", "Longbottom", "Lovegood", "Malfoy",
+            "Chang", "Diggory", "Thomas", "Finnigan", "Brown", "Patil", "Abbott", "Bones", "Macmillan", "Smith"};
+    private static final String[] PREFIXES = {"her", "wea", "lon", "ced", "pat"};
+    private static final String[] SUBSTRINGS = {"rmion", "ottom", "ovego", "nniga", "cmill"};
+    private static final String[] MISSPELLINGS = {"hermoine", "weasly", "longbotom", "lovegod", "finigan"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int names;
+
+    private NameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        index = new NameIndex();
+        Random random = new Random(42);
+        for (long id = 1; id <= names; id++) {
+            index.put(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(names));
+        }
+        long retained = usedHeap() - before;
+        System.out.printf("%nNameIndex with %d names retains ~%.1f MB, %d bytes per name%n",
+                names, retained / (1024.0 * 1024.0), retained / names);
+    }
+
+    @Benchmark
+    public List<NameIndex.Match> prefix() {
+        return index.search(pick(PREFIXES), 10);
+    }
+
+    @Benchmark
+    public List<NameIndex.Match> substring() {
+        return index.search(pick(SUBSTRINGS), 10);
+    }
+
+    @Benchmark
+    public List<NameIndex.Match> fuzzy() {
+        return index.search(pick(MISSPELLINGS), 10);
+    }
+
+    private static String pick(String[] queries) {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.hogwarts.school.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentAgeIndexService;
+import ru.hogwarts.school.service.StudentBatchProcessor;
+import ru.hogwarts.school.service.StudentService;
+import ru.hogwarts.school.service.StudentStatisticsService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The services under test, wired either to the map-backed repository stand-ins or to a full
+ * application context on an in-memory H2 database, seeded with {@link #students} students.
+ */
+@State(Scope.Benchmark)
+public class SchoolBackend {
+
+    @Param({"memory", "h2"})
+    public String backend;
+
+    @Param({"1000", "100000"})
+    public int students;
+
+    StudentService studentService;
+    FacultyService facultyService;
+    StudentStatisticsService statisticsService;
+    long[] studentIds;
+    long[] facultyIds;
+
+    private ConfigurableApplicationContext context;
+    private Path avatarsDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("memory".equals(backend)) {
+            setUpMemory();
+        } else {
+            setUpH2();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+            FileSystemUtils.deleteRecursively(avatarsDir);
+        }
+    }
+
+    long randomStudentId() {
+        return studentIds[ThreadLocalRandom.current().nextInt(studentIds.length)];
+    }
+
+    long randomFacultyId() {
+        return facultyIds[ThreadLocalRandom.current().nextInt(facultyIds.length)];
+    }
+
+    String randomFacultyName() {
+        return SeedData.FACULTIES[ThreadLocalRandom.current().nextInt(SeedData.FACULTIES.length)];
+    }
+
+    private void setUpMemory() {
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        List<Faculty> faculties = new ArrayList<>();
+        for (int i = 0; i < SeedData.FACULTIES.length; i++) {
+            faculties.add(repositories.addFaculty(SeedData.FACULTIES[i], SeedData.COLORS[i]));
+        }
+        studentIds = new long[students];
+        for (int i = 0; i < students; i++) {
+            studentIds[i] = repositories.addStudent(SeedData.name(i), SeedData.age(i),
+                    faculties.get(i % faculties.size())).getId();
+        }
+        facultyIds = faculties.stream().mapToLong(Faculty::getId).toArray();
+
+        StudentRepository studentRepository = repositories.studentRepository();
+        statisticsService = new StudentStatisticsService(studentRepository);
+        StudentAgeIndexService ageIndex = new StudentAgeIndexService(studentRepository, true);
+        ageIndex.rebuild();
+        SchoolMetrics schoolMetrics = new SchoolMetrics(new SimpleMeterRegistry());
+        studentService = new StudentService(studentRepository, studentRepository, statisticsService, ageIndex, event -> {
+        }, new StudentBatchProcessor(studentRepository, false), schoolMetrics, 10_000, Duration.ofMinutes(10));
+        facultyService = new FacultyService(repositories.facultyRepository(), event -> {
+        }, schoolMetrics, 10_000, Duration.ofMinutes(10));
+    }
+
+    private void setUpH2() throws IOException {
+        avatarsDir = Files.createTempDirectory("benchmark-avatars-");
+        context = SchoolContexts.startH2(avatarsDir);
+        SeedData seed = SeedData.seed(context, students, 0);
+        studentIds = seed.studentIds();
+        facultyIds = seed.facultyIds();
+
+        studentService = context.getBean(StudentService.class);
+        facultyService = context.getBean(FacultyService.class);
+        statisticsService = context.getBean(StudentStatisticsService.class);
+        statisticsService.reconcile();
+        context.getBean(StudentAgeIndexService.class).rebuild();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.SchoolApplication;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+final class SchoolContexts {
+
+    private SchoolContexts() {
+    }
+
+    static ConfigurableApplicationContext startH2(Path avatarsDir) {
+        return new SpringApplicationBuilder(SchoolApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(avatarsDir, false));
+    }
+
+    /**
+     * Starts the web server on a random port, read back from {@code local.server.port}.
+     */
+    static ConfigurableApplicationContext startServer(Path avatarsDir, boolean virtualThreads) {
+        return new SpringApplicationBuilder(SchoolApplication.class)
+                .run(arguments(avatarsDir, virtualThreads, "--server.port=0"));
+    }
+
+    // command-line arguments rather than default properties, which application.yaml would override
+    private static String[] arguments(Path avatarsDir, boolean virtualThreads, String... extra) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.liquibase.enabled=false",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--avatars.dir.path=" + avatarsDir,
+                "--avatars.max-file-size=10MB",
+                "--logging.level.root=WARN"));
+        arguments.addAll(List.of(extra));
+        return arguments.toArray(String[]::new);
+    }
+}
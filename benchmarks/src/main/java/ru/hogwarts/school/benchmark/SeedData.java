@@ -0,0 +1,102 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.AvatarService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Students spread over the four houses, and JPEG avatars for the first {@code avatars} of them, saved through
+ * a running application context. Shared by the H2 benchmarks and the load test.
+ */
+record SeedData(long[] studentIds, long[] facultyIds, long[] avatarStudentIds) {
+
+    static final String[] FACULTIES = {"Gryffindor", "Hufflepuff", "Ravenclaw", "Slytherin"};
+    static final String[] COLORS = {"red", "yellow", "blue", "green"};
+    private static final String[] NAMES = {"Harry", "Hermione", "Ron", "Ginny", "Neville", "Luna", "Draco", "Cho"};
+    private static final int BATCH_SIZE = 1000;
+
+    static SeedData seed(ConfigurableApplicationContext context, int students, int avatars) throws IOException {
+        FacultyRepository facultyRepository = context.getBean(FacultyRepository.class);
+        StudentRepository studentRepository = context.getBean(StudentRepository.class);
+
+        List<Faculty> faculties = new ArrayList<>();
+        for (int i = 0; i < FACULTIES.length; i++) {
+            faculties.add(facultyRepository.save(new Faculty(FACULTIES[i], COLORS[i])));
+        }
+
+        long[] studentIds = new long[students];
+        List<Student> batch = new ArrayList<>(BATCH_SIZE);
+        int seeded = 0;
+        for (int i = 0; i < students; i++) {
+            Student student = new Student(name(i), age(i));
+            student.setFaculty(faculties.get(i % faculties.size()));
+            batch.add(student);
+            if (batch.size() == BATCH_SIZE || i == students - 1) {
+                for (Student saved : studentRepository.saveAll(batch)) {
+                    studentIds[seeded++] = saved.getId();
+                }
+                batch.clear();
+            }
+        }
+
+        AvatarService avatarService = context.getBean(AvatarService.class);
+        long[] avatarStudentIds = new long[Math.min(avatars, students)];
+        Random random = new Random(42);
+        for (int i = 0; i < avatarStudentIds.length; i++) {
+            avatarStudentIds[i] = studentIds[i];
+            byte[] image = jpeg(64 + random.nextInt(448), random);
+            avatarService.uploadAvatar(studentIds[i], new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", image));
+        }
+
+        return new SeedData(studentIds, faculties.stream().mapToLong(Faculty::getId).toArray(), avatarStudentIds);
+    }
+
+    static String name(int index) {
+        return NAMES[index % NAMES.length] + " " + index;
+    }
+
+    static int age(int index) {
+        return 11 + index % 7;
+    }
+
+    static byte[] jpeg(int side, Random random) throws IOException {
+        BufferedImage picture = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                picture.setRGB(x, y, (x * 255 / side) << 16 | (y * 255 / side) << 8 | random.nextInt(64));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(picture, "jpg", out);
+        return out.toByteArray();
+    }
+
+    long randomStudentId() {
+        return studentIds[ThreadLocalRandom.current().nextInt(studentIds.length)];
+    }
+
+    long randomFacultyId() {
+        return facultyIds[ThreadLocalRandom.current().nextInt(facultyIds.length)];
+    }
+
+    String randomFacultyName() {
+        return FACULTIES[ThreadLocalRandom.current().nextInt(FACULTIES.length)];
+    }
+
+    long randomAvatarStudentId() {
+        return avatarStudentIds[ThreadLocalRandom.current().nextInt(avatarStudentIds.length)];
+    }
+}
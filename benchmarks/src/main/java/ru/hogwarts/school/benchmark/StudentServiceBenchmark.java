@@ -0,0 +1,60 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    @Benchmark
+    public Student findStudent(SchoolBackend school) {
+        return school.studentService.findStudent(school.randomStudentId());
+    }
+
+    @Benchmark
+    public List<StudentDto> findByAgeBetween(SchoolBackend school) {
+        return school.studentService.findByAgeBetween(13, 14);
+    }
+
+    @Benchmark
+    public long countByAgeBetween(SchoolBackend school) {
+        return school.studentService.countByAgeBetween(13, 14);
+    }
+
+    @Benchmark
+    public List<StudentInfo> findByNamePrefix(SchoolBackend school) {
+        return school.studentService.findByNamePrefix("Her", 20, false);
+    }
+
+    @Benchmark
+    public List<StudentInfo> findByNamePrefixIgnoreCase(SchoolBackend school) {
+        return school.studentService.findByNamePrefix("her", 20, true);
+    }
+
+    @Benchmark
+    public StudentStatistics getStatistics(SchoolBackend school) {
+        return school.studentService.getStatistics();
+    }
+
+    @Benchmark
+    public StudentStatistics reconcileStatistics(SchoolBackend school) {
+        school.statisticsService.reconcile();
+        return school.statisticsService.getStatistics();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public record CacheStats(long hits, long misses, long evictions, long size, long weight, long maxWeight) {
+
+    public static CacheStats of(Cache<?, ?> cache, long maximumSize) {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+        long size = cache.estimatedSize();
+        return new CacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), size, size, maximumSize);
+    }
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.hogwarts.school.cache;
+
+public record RegionStats(long hits, long misses, long puts) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
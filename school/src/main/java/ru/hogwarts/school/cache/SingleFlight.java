@@ -0,0 +1,67 @@
+package ru.hogwarts.school.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent calls for the same key: the first caller runs the loader and callers arriving while it runs
+ * wait for its result instead of repeating the work. Nothing is kept after the call completes, and
+ * {@link #forgetAll()} detaches running calls so callers arriving after a write start a fresh one.
+ * The same result instance is handed to every waiter, so it must be immutable and safe to read from several
+ * threads: DTOs rather than entities, which belong to the persistence context of the caller that loaded them.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    public V execute(K key, Supplier<? extends V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public long executed() {
+        return executed.sum();
+    }
+
+    public long shared() {
+        return shared.sum();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.hogwarts.school.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Least-recently-used cache bounded by the total weight of its values rather than by entry count.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long weight;
+    /**
+     * Bumped by every invalidation, so loads that started before it do not cache what they read.
+     */
+    private long generation;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        V value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value or computes it outside the lock; concurrent misses for the same key may compute twice.
+     * A value whose computation overlapped an invalidation is returned but not cached, since it may have been read
+     * before the write the invalidation stands for.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, -1);
+    }
+
+    private void put(K key, V value, long loadGeneration) {
+        long valueWeight = weigher.applyAsLong(value);
+        synchronized (this) {
+            if (loadGeneration >= 0 && loadGeneration != generation) {
+                return;
+            }
+            V previous = entries.remove(key);
+            if (previous != null) {
+                weight -= weigher.applyAsLong(previous);
+            }
+            if (valueWeight > maxWeight) {
+                return;
+            }
+            entries.put(key, value);
+            weight += valueWeight;
+            evictToMaxWeight();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        V previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        generation++;
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, V> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                weight -= weigher.applyAsLong(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public CacheStats stats() {
+        long size;
+        long currentWeight;
+        synchronized (this) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, currentWeight, maxWeight);
+    }
+
+    private void evictToMaxWeight() {
+        Iterator<V> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= weigher.applyAsLong(iterator.next());
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hogwarts.school.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Multipart requests are parsed by the servlet container with the avatar-sized limits of
+ * {@code spring.servlet.multipart}, except avatar imports. The container applies multipart limits per servlet,
+ * so imports go through a second dispatcher servlet on the same context, mapped to the import path only and
+ * limited by {@code avatars.import.max-archive-size}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MultipartConfig {
+
+    public static final String IMPORT_PATH = "/avatar/import";
+
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> avatarImportServlet(
+            WebApplicationContext context,
+            @Value("${avatars.import.max-archive-size:1GB}") DataSize maxImportSize) {
+        ServletRegistrationBean<DispatcherServlet> registration =
+                new ServletRegistrationBean<>(new DispatcherServlet(context), IMPORT_PATH);
+        registration.setName("avatarImportServlet");
+        registration.setLoadOnStartup(1);
+        long maxBytes = maxImportSize.toBytes();
+        registration.setMultipartConfig(new MultipartConfigElement("", maxBytes, maxBytes, 0));
+        return registration;
+    }
+}
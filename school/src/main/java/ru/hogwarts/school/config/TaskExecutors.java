@@ -0,0 +1,23 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Starts a new thread per task, virtual when requested and the runtime supports it.
+     * Callers bound the number of tasks in flight themselves.
+     */
+    public static SimpleAsyncTaskExecutor threadPerTask(String threadNamePrefix, boolean virtualThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(virtualThreads && virtualThreadsAvailable());
+        return executor;
+    }
+}
@@ -0,0 +1,124 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.QueryExecutor;
+import ru.hogwarts.school.service.QueryRejectedException;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variants of the student and faculty queries. The queries run on {@link QueryExecutor}
+ * and the servlet thread is released while they wait; a saturated executor answers 503 with Retry-After.
+ */
+@RestController
+@RequestMapping("/async")
+public class AsyncQueryController {
+
+    private final StudentService studentService;
+    private final FacultyService facultyService;
+    private final QueryExecutor queryExecutor;
+
+    public AsyncQueryController(StudentService studentService,
+                                FacultyService facultyService,
+                                QueryExecutor queryExecutor) {
+        this.studentService = studentService;
+        this.facultyService = facultyService;
+        this.queryExecutor = queryExecutor;
+    }
+
+    @GetMapping("/student/id/{id}")
+    public CompletableFuture<ResponseEntity<StudentDto>> getStudentInfo(@PathVariable Long id) {
+        return queryExecutor.submit(() -> {
+            Student student = studentService.findStudent(id);
+            if (student == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(StudentDto.from(student));
+        });
+    }
+
+    @GetMapping(value = "/student", params = "age")
+    public CompletableFuture<ResponseEntity<Collection<StudentDto>>> findByAge(@RequestParam int age) {
+        if (age <= 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Collections.emptyList()));
+        }
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.findByAge(age)));
+    }
+
+    @GetMapping(value = "/student", params = {"min", "max"})
+    public CompletableFuture<ResponseEntity<Collection<StudentDto>>> findByAgeBetween(@RequestParam int min,
+                                                                                      @RequestParam int max) {
+        if (min <= 0 || max <= min) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Collections.emptyList()));
+        }
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.findByAgeBetween(min, max)));
+    }
+
+    @GetMapping("/student/getCountAllByStudents")
+    public CompletableFuture<ResponseEntity<Integer>> getCountAllByStudents() {
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.getCountAllByStudents()));
+    }
+
+    @GetMapping("/student/getAvgAgeByAllStudents")
+    public CompletableFuture<ResponseEntity<Double>> getAvgAgeByAllStudents() {
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.getAvgAgeByAllStudents()));
+    }
+
+    @GetMapping("/student/getAvgAgeStudents")
+    public CompletableFuture<ResponseEntity<Double>> getAvgAgeStudents() {
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.getAvgAgeStudents()));
+    }
+
+    @GetMapping("/student/getAllStudentsByNameFirstA")
+    public CompletableFuture<ResponseEntity<List<String>>> getAllStudentsByNameFirstA() {
+        return queryExecutor.submit(() -> ResponseEntity.ok(studentService.getAllStudentsByNameFirstA()));
+    }
+
+    @GetMapping("/faculty/{id}")
+    public CompletableFuture<ResponseEntity<FacultyDto>> getFacultyInfo(@PathVariable Long id) {
+        return queryExecutor.submit(() -> {
+            Faculty faculty = facultyService.findFaculty(id);
+            if (faculty == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(FacultyDto.from(faculty));
+        });
+    }
+
+    @GetMapping(value = "/faculty", params = "colorOrName")
+    public CompletableFuture<ResponseEntity<Collection<FacultyDto>>> findFaculties(@RequestParam String colorOrName) {
+        if (colorOrName.isBlank()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Collections.emptyList()));
+        }
+        return queryExecutor.submit(() -> ResponseEntity.ok(facultyService.findByColorOrName(colorOrName)));
+    }
+
+    @GetMapping("/faculty/{faculty}/students")
+    public CompletableFuture<ResponseEntity<Collection<StudentDto>>> findByStudent(@PathVariable String faculty) {
+        return queryExecutor.submit(() -> ResponseEntity.ok(facultyService.findByStudents(faculty)));
+    }
+
+    @GetMapping("/faculty/getLongestNameFaculty")
+    public CompletableFuture<ResponseEntity<String>> getLongestNameFaculty() {
+        return queryExecutor.submit(() -> ResponseEntity.ok(facultyService.getLongestNameFaculty()));
+    }
+
+    @ExceptionHandler(QueryRejectedException.class)
+    public ResponseEntity<Void> handleRejected(QueryRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .build();
+    }
+}
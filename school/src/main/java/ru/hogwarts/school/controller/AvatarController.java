@@ -0,0 +1,180 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.dto.AvatarImportStatus;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.service.AvatarImportService;
+import ru.hogwarts.school.service.AvatarPreviewService;
+import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.service.ImportRejectedException;
+import ru.hogwarts.school.service.PreviewSize;
+import ru.hogwarts.school.storage.ContentTooLargeException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/avatar")
+public class AvatarController {
+
+    private AvatarService avatarService;
+    private AvatarPreviewService avatarPreviewService;
+    private AvatarImportService avatarImportService;
+    private SchoolMetrics schoolMetrics;
+
+    public AvatarController(AvatarService avatarService,
+                            AvatarPreviewService avatarPreviewService,
+                            AvatarImportService avatarImportService,
+                            SchoolMetrics schoolMetrics) {
+        this.avatarService = avatarService;
+        this.avatarPreviewService = avatarPreviewService;
+        this.avatarImportService = avatarImportService;
+        this.schoolMetrics = schoolMetrics;
+    }
+
+    @PostMapping(value = "/{id}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<String> uploadAvatar(@PathVariable Long id, @RequestParam MultipartFile avatar) throws IOException {
+        avatarService.uploadAvatar(id, avatar);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AvatarImportStatus> importAvatars(MultipartHttpServletRequest request) throws IOException {
+        // imports are far larger than the avatar multipart limit, MultipartConfig serves them with their own limit
+        AvatarImportStatus status = avatarImportService.startImport(request.getMultiFileMap());
+        return ResponseEntity.accepted()
+                .location(URI.create("/avatar/import/" + status.id()))
+                .body(status);
+    }
+
+    @GetMapping(value = "/import/{jobId}")
+    public ResponseEntity<AvatarImportStatus> getImportStatus(@PathVariable UUID jobId) {
+        return ResponseEntity.of(avatarImportService.getStatus(jobId));
+    }
+
+    @ExceptionHandler({ContentTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ResponseEntity<String> handleTooLarge() {
+        return ResponseEntity.badRequest().body("File is too big");
+    }
+
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<String> handleImportRejected(ImportRejectedException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @GetMapping(value = "/{id}/avatar/preview")
+    public ResponseEntity<byte[]> downloadAvatar(@PathVariable Long id,
+                                                 @RequestParam(defaultValue = "MEDIUM") PreviewSize size,
+                                                 ServletWebRequest webRequest) {
+        AvatarPreview preview = avatarPreviewService.getPreview(id, size);
+        if (webRequest.checkNotModified(preview.contentHash() + "-" + size.variantName())) {
+            return null;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(preview.mediaType()));
+        headers.setContentLength(preview.data().length);
+        headers.setCacheControl(CacheControl.noCache());
+
+        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(preview.data());
+    }
+
+    @GetMapping(value = "/preview/cache-stats")
+    public CacheStats getPreviewCacheStats() {
+        return avatarPreviewService.getCacheStats();
+    }
+
+    @GetMapping(value = "/{id}/avatar")
+    public void downloadAvatar(@PathVariable Long id,
+                               ServletWebRequest webRequest,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        Avatar avatar = avatarService.findAvatar(id);
+        long lastModified = avatar.getUpdatedAt() != null ? avatar.getUpdatedAt().toEpochMilli() : -1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (webRequest.checkNotModified(avatar.getContentHash(), lastModified)) {
+            return;
+        }
+
+        Resource resource = avatarService.loadAvatar(avatar);
+        long length = avatar.getFileSize();
+        response.setContentType(avatar.getMediaType());
+
+        HttpRange range = requestedRange(request, avatar);
+        if (range == null) {
+            response.setStatus(HttpStatus.OK.value());
+            ResourceRegionWriter.write(resource, 0, length, request, response);
+            schoolMetrics.avatarSent(length);
+            return;
+        }
+
+        long start = range.getRangeStart(length);
+        long end = range.getRangeEnd(length);
+        if (start >= length || start > end) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        ResourceRegionWriter.write(resource, start, end - start + 1, request, response);
+        schoolMetrics.avatarSent(end - start + 1);
+    }
+
+    private HttpRange requestedRange(HttpServletRequest request, Avatar avatar) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals("\"" + avatar.getContentHash() + "\"")) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @GetMapping(value = "/page")
+    public ResponseEntity<CursorPage<AvatarInfo>> getAvatarPage(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "0") long afterId,
+                                                                @RequestParam(defaultValue = "50") int size) {
+        OptionalLong after = CursorPage.decode(cursor, afterId, size);
+        if (after.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(avatarService.getAvatarPage(after.getAsLong(), size));
+    }
+
+    @GetMapping(value = "/getAllAvatar")
+    public List<AvatarInfo> getAllAvatar(@RequestParam("pageNumber") Integer pageNumber,
+                                     @RequestParam("pageSize") Integer pageSize) {
+        return avatarService.getAllAvatar(pageNumber, pageSize);
+    }
+}
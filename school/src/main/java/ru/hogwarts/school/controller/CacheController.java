@@ -0,0 +1,29 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.cache.RegionStats;
+import ru.hogwarts.school.service.SecondLevelCacheService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+    private final SecondLevelCacheService secondLevelCacheService;
+
+    public CacheController(SecondLevelCacheService secondLevelCacheService) {
+        this.secondLevelCacheService = secondLevelCacheService;
+    }
+
+    @GetMapping("/regions")
+    public ResponseEntity<Map<String, RegionStats>> getRegionStats() {
+        if (!secondLevelCacheService.isStatisticsEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(secondLevelCacheService.getRegionStats());
+    }
+}
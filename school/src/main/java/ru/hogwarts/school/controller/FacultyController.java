@@ -3,12 +3,18 @@ package ru.hogwarts.school.controller;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.diagnostics.QueryBudget;
+import ru.hogwarts.school.dto.BatchResult;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
 import ru.hogwarts.school.model.Faculty;
-import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.FacultyService;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/faculty")
@@ -20,26 +26,35 @@ public class FacultyController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Faculty> getFacultyInfo(@PathVariable Long id) {
+    public ResponseEntity<FacultyDto> getFacultyInfo(@PathVariable Long id) {
         Faculty faculty = facultyService.findFaculty(id);
         if (faculty == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(faculty);
+        return ResponseEntity.ok(FacultyDto.from(faculty));
+    }
+
+    @PostMapping("/batch")
+    @QueryBudget(2)
+    public ResponseEntity<BatchResult<FacultyDto>> getFacultiesInfo(@RequestBody List<Long> ids) {
+        if (ids.size() > BatchResult.MAX_IDS || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(BatchResult.of(ids, facultyService.findFaculties(ids), FacultyDto::from));
     }
 
     @PostMapping
-    public Faculty createFaculty(@RequestBody Faculty faculty) {
-        return facultyService.addFaculty(faculty);
+    public FacultyDto createFaculty(@RequestBody Faculty faculty) {
+        return FacultyDto.from(facultyService.addFaculty(faculty));
     }
 
     @PutMapping
-    public ResponseEntity<Faculty> editFaculty(@RequestBody Faculty faculty) {
+    public ResponseEntity<FacultyDto> editFaculty(@RequestBody Faculty faculty) {
         Faculty foundFaculty = facultyService.editFaculty(faculty);
         if (foundFaculty == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        return ResponseEntity.ok(foundFaculty);
+        return ResponseEntity.ok(FacultyDto.from(foundFaculty));
     }
 
     @DeleteMapping("/{id}")
@@ -49,7 +64,7 @@ public class FacultyController {
     }
 
     @GetMapping(params = "colorOrName")
-    public ResponseEntity<Collection<Faculty>> findFaculties(@RequestParam String colorOrName) {
+    public ResponseEntity<Collection<FacultyDto>> findFaculties(@RequestParam String colorOrName) {
         if (colorOrName != null && !colorOrName.isBlank()) {
             return ResponseEntity.ok(facultyService.findByColorOrName(colorOrName));
         }
@@ -57,13 +72,19 @@ public class FacultyController {
     }
 
     @GetMapping("/{faculty}/students")
-    public ResponseEntity<Collection<Student>> findByStudent(@PathVariable String faculty) {
+    @QueryBudget(2)
+    public ResponseEntity<Collection<StudentDto>> findByStudent(@PathVariable String faculty) {
         if (faculty != null && !faculty.isBlank()) {
             return ResponseEntity.ok(facultyService.findByStudents(faculty));
         }
         return ResponseEntity.ok(null);
     }
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, CacheStats>> getCacheStats() {
+        return ResponseEntity.ok(facultyService.getCacheStats());
+    }
+
     @GetMapping("/getLongestNameFaculty")
     public String getLongestNameFaculty() {
         return facultyService.getLongestNameFaculty();
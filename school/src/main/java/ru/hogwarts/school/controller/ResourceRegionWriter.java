@@ -0,0 +1,60 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+final class ResourceRegionWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private ResourceRegionWriter() {
+    }
+
+    static void write(Resource resource, long start, long length,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(length);
+        if (length == 0) {
+            return;
+        }
+        if (resource.isFile()) {
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the region with sendfile(2) once the handler returns
+                request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + length);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = length;
+                while (remaining > 0) {
+                    long transferred = channel.transferTo(position, remaining, out);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+            return;
+        }
+        try (InputStream is = resource.getInputStream()) {
+            OutputStream os = response.getOutputStream();
+            StreamUtils.copyRange(is, os, start, start + length - 1);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.dto.NameMatch;
+import ru.hogwarts.school.service.NameSearchService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final NameSearchService nameSearchService;
+
+    public SearchController(NameSearchService nameSearchService) {
+        this.nameSearchService = nameSearchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<NameMatch>> search(@RequestParam String q,
+                                                  @RequestParam(required = false) String type,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        if (q.isBlank() || limit < 1 || limit > MAX_LIMIT
+                || (type != null && !NameSearchService.STUDENT.equals(type) && !NameSearchService.FACULTY.equals(type))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!nameSearchService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(nameSearchService.search(q, type, limit));
+    }
+}
@@ -0,0 +1,221 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.diagnostics.QueryBudget;
+import ru.hogwarts.school.dto.BatchResult;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.ProcessingStats;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.ExportFormat;
+import ru.hogwarts.school.service.StudentExportService;
+import ru.hogwarts.school.service.StudentImportService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+@RestController
+@RequestMapping("/student")
+public class StudentController {
+    private StudentService studentService;
+    private final StudentImportService studentImportService;
+    private final StudentExportService studentExportService;
+    private final Duration exportTimeout;
+
+    public StudentController(StudentService studentService,
+                             StudentImportService studentImportService,
+                             StudentExportService studentExportService,
+                             @Value("${school.export.timeout:PT30M}") Duration exportTimeout) {
+        this.studentService = studentService;
+        this.studentImportService = studentImportService;
+        this.studentExportService = studentExportService;
+        this.exportTimeout = exportTimeout;
+    }
+
+    @GetMapping(value = "/id/{id}")
+    public ResponseEntity<StudentDto> getStudentInfo(@PathVariable Long id) {
+        Student student = studentService.findStudent(id);
+        if (student == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(StudentDto.from(student));
+    }
+
+    @PostMapping("/batch")
+    @QueryBudget(2)
+    public ResponseEntity<BatchResult<StudentDto>> getStudentsInfo(@RequestBody List<Long> ids) {
+        if (ids.size() > BatchResult.MAX_IDS || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(BatchResult.of(ids, studentService.findStudents(ids), StudentDto::from));
+    }
+
+    @PostMapping
+    public StudentDto createStudent(@RequestBody Student student) {
+        return StudentDto.from(studentService.addStudent(student));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StudentImportResult> importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              InputStream body) throws IOException {
+        StudentImportResult result = studentImportService.importStudents(body, contentType);
+        return ResponseEntity.status(result.completed() ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "ndjson") String format,
+                                                                NativeWebRequest request) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // the streamed body runs as an async task; only the export gets this long, like a WebAsyncTask timeout
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("students." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(out -> studentExportService.export(exportFormat, out));
+    }
+
+    @PutMapping
+    public ResponseEntity<StudentDto> editStudent(@RequestBody Student student) {
+        Student foundStudent = studentService.editStudent(student);
+        if (foundStudent == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(StudentDto.from(foundStudent));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteStudent(@PathVariable Long id) {
+        studentService.deleteStudent(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<StudentInfo>> getStudentPage(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "0") long afterId,
+                                                                  @RequestParam(defaultValue = "50") int size) {
+        OptionalLong after = CursorPage.decode(cursor, afterId, size);
+        if (after.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentService.getStudentPage(after.getAsLong(), size));
+    }
+
+    @GetMapping("/name-prefix")
+    public ResponseEntity<List<StudentInfo>> findByNamePrefix(@RequestParam String prefix,
+                                                              @RequestParam(defaultValue = "20") int limit,
+                                                              @RequestParam(defaultValue = "false") boolean ignoreCase) {
+        if (prefix.isEmpty() || limit < 1 || limit > CursorPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentService.findByNamePrefix(prefix, limit, ignoreCase));
+    }
+
+    @GetMapping(params = "age")
+    public ResponseEntity<Collection<StudentDto>> findByAge(@RequestParam int age) {
+        if (age > 0) {
+            return ResponseEntity.ok(studentService.findByAge(age));
+        }
+        return ResponseEntity.ok(Collections.emptyList());
+    }
+
+    @GetMapping(params = {"min", "max"})
+    public ResponseEntity<Collection<StudentDto>> findByAgeBetween(@RequestParam int min, @RequestParam int max) {
+        if (min > 0 && max > min) {
+            return ResponseEntity.ok(studentService.findByAgeBetween(min, max));
+        }
+        return ResponseEntity.ok(Collections.emptyList());
+    }
+
+    @GetMapping("/count-by-age")
+    public ResponseEntity<Long> countByAgeBetween(@RequestParam int min, @RequestParam int max) {
+        if (min > max) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentService.countByAgeBetween(min, max));
+    }
+
+    @GetMapping("/{student}")
+    public ResponseEntity<FacultyDto> findByFaculty(@PathVariable String student) {
+        return ResponseEntity.ok(studentService.findByFaculty(student));
+    }
+
+    @GetMapping("/getCountAllByStudents")
+    public ResponseEntity<Integer> getCountAllByStudents() {
+        return ResponseEntity.ok(studentService.getCountAllByStudents());
+    }
+
+    @GetMapping("/getAvgAgeByAllStudents")
+    public ResponseEntity<Double> getAvgAgeByAllStudents() {
+        return ResponseEntity.ok(studentService.getAvgAgeByAllStudents());
+    }
+
+    @GetMapping("/statistics")
+    public ResponseEntity<StudentStatistics> getStatistics() {
+        return ResponseEntity.ok(studentService.getStatistics());
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(studentService.getCacheStats());
+    }
+
+    @GetMapping("/get5StudentsAscId")
+    @QueryBudget(2)
+    public ResponseEntity<List<StudentDto>> get5StudentsAscId() {
+        return ResponseEntity.ok(toDto(studentService.get5StudentsAscId()));
+    }
+
+    @GetMapping("/getAllStudentsByNameFirstA")
+    public ResponseEntity<List<String>> getAllStudentsByNameFirstA() {
+        return ResponseEntity.ok(studentService.getAllStudentsByNameFirstA());
+    }
+
+    @GetMapping("/getAvgAgeStudents")
+    public ResponseEntity<Double> getAvgAgeStudents() {
+        return ResponseEntity.ok(studentService.getAvgAgeStudents());
+    }
+
+    @GetMapping("/print-parallel")
+    public ResponseEntity<ProcessingStats> printParallelStudentsName() {
+        return ResponseEntity.ok(studentService.printParallelStudentsName());
+    }
+
+    @GetMapping("/print-synchronized")
+    public ResponseEntity<ProcessingStats> printSynchronizedStudentName() {
+        return ResponseEntity.ok(studentService.printSynchronizedStudentName());
+    }
+
+    private List<StudentDto> toDto(Collection<Student> students) {
+        return students.stream().map(StudentDto::from).toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.diagnostics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a handler may issue per request while query diagnostics are enabled;
+ * handlers without it get {@code school.diagnostics.queries.default-budget}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
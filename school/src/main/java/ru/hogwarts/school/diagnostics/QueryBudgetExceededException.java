@@ -0,0 +1,8 @@
+package ru.hogwarts.school.diagnostics;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String handler, int budget, String statement) {
+        super(handler + " exceeded its budget of " + budget + " queries with: " + statement);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.hogwarts.school.diagnostics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Counts the statements of every request, warns about repeated statements and optionally fails requests
+ * that go over their {@link QueryBudget}. Meant for the dev and test profiles.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "school.diagnostics.queries.enabled", havingValue = "true")
+public class QueryDiagnosticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryInspectorCustomizer(
+            @Value("${school.diagnostics.queries.fail-on-budget-exceeded:false}") boolean failOnBudgetExceeded) {
+        QueryInspector inspector = new QueryInspector(failOnBudgetExceeded);
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public WebMvcConfigurer queryTrackingConfigurer(
+            @Value("${school.diagnostics.queries.default-budget:20}") int defaultBudget,
+            @Value("${school.diagnostics.queries.repeat-threshold:5}") int repeatThreshold) {
+        QueryTrackingInterceptor interceptor = new QueryTrackingInterceptor(defaultBudget, repeatThreshold);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package ru.hogwarts.school.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+class QueryInspector implements StatementInspector {
+
+    private final boolean failOnBudgetExceeded;
+
+    QueryInspector(boolean failOnBudgetExceeded) {
+        this.failOnBudgetExceeded = failOnBudgetExceeded;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryTracker tracker = QueryTracker.current();
+        if (tracker != null && !tracker.record(sql) && failOnBudgetExceeded) {
+            throw new QueryBudgetExceededException(tracker.handler(), tracker.budget(), sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.hogwarts.school.diagnostics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statements issued while handling the current request on this thread.
+ */
+final class QueryTracker {
+
+    private static final ThreadLocal<QueryTracker> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final int budget;
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+    private int count;
+
+    private QueryTracker(String handler, int budget) {
+        this.handler = handler;
+        this.budget = budget;
+    }
+
+    static QueryTracker start(String handler, int budget) {
+        QueryTracker tracker = new QueryTracker(handler, budget);
+        CURRENT.set(tracker);
+        return tracker;
+    }
+
+    static QueryTracker current() {
+        return CURRENT.get();
+    }
+
+    static QueryTracker finish() {
+        QueryTracker tracker = CURRENT.get();
+        CURRENT.remove();
+        return tracker;
+    }
+
+    /**
+     * Returns false once the request has issued more statements than its budget.
+     */
+    boolean record(String sql) {
+        count++;
+        statements.merge(sql, 1, Integer::sum);
+        return count <= budget;
+    }
+
+    String handler() {
+        return handler;
+    }
+
+    int budget() {
+        return budget;
+    }
+
+    int count() {
+        return count;
+    }
+
+    Map<String, Integer> statements() {
+        return statements;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.hogwarts.school.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Tracks the statements of the request thread. Async handlers are tracked up to the point where they hand off
+ * to another thread, and again on the dispatch that writes their result; work done on the executor is not counted.
+ */
+class QueryTrackingInterceptor implements AsyncHandlerInterceptor {
+
+    private final Logger logger = LoggerFactory.getLogger(QueryTrackingInterceptor.class);
+
+    private final int defaultBudget;
+    private final int repeatThreshold;
+
+    QueryTrackingInterceptor(int defaultBudget, int repeatThreshold) {
+        this.defaultBudget = defaultBudget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+            QueryTracker.start(method.getShortLogMessage(), budget != null ? budget.value() : defaultBudget);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        report(QueryTracker.finish());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        report(QueryTracker.finish());
+    }
+
+    private void report(QueryTracker tracker) {
+        if (tracker == null) {
+            return;
+        }
+        if (tracker.count() > tracker.budget()) {
+            logger.warn("{} issued {} queries, its budget is {}", tracker.handler(), tracker.count(), tracker.budget());
+        }
+        for (Map.Entry<String, Integer> statement : tracker.statements().entrySet()) {
+            if (statement.getValue() >= repeatThreshold) {
+                logger.warn("Possible N+1 in {}: {} executions of {}",
+                        tracker.handler(), statement.getValue(), statement.getKey());
+            }
+        }
+        logger.debug("{} issued {} queries", tracker.handler(), tracker.count());
+    }
+}
@@ -0,0 +1,28 @@
+package ru.hogwarts.school.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record AvatarImportStatus(UUID id,
+                                 State state,
+                                 int total,
+                                 int succeeded,
+                                 int failed,
+                                 List<EntryError> errors,
+                                 Instant startedAt,
+                                 Instant finishedAt) {
+
+    public int getProcessed() {
+        return succeeded + failed;
+    }
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record EntryError(String entry, String message) {
+    }
+}
@@ -0,0 +1,29 @@
+package ru.hogwarts.school.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public record BatchResult<T>(List<T> items, List<Long> missing) {
+
+    public static final int MAX_IDS = 1000;
+
+    /**
+     * Lists the found entities in the order their ids were requested, each id once, and the ids that were not found.
+     */
+    public static <E, T> BatchResult<T> of(List<Long> ids, Map<Long, E> found, Function<E, T> mapper) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            E entity = found.get(id);
+            if (entity != null) {
+                items.add(mapper.apply(entity));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchResult<>(items, missing);
+    }
+}
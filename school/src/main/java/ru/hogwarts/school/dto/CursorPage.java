@@ -0,0 +1,55 @@
+package ru.hogwarts.school.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.ToLongFunction;
+
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows ordered by id;
+     * the extra row only signals that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, ToLongFunction<T> idOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(items, encodeCursor(idOf.applyAsLong(items.get(size - 1))));
+    }
+
+    /**
+     * Returns the id to continue after, read from {@code cursor} or taken from {@code afterId} when there is no
+     * cursor; empty when the cursor is malformed or {@code size} is outside 1..{@link #MAX_SIZE}.
+     */
+    public static OptionalLong decode(String cursor, long afterId, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            return OptionalLong.empty();
+        }
+        if (cursor == null) {
+            return OptionalLong.of(afterId);
+        }
+        try {
+            return OptionalLong.of(decodeCursor(cursor));
+        } catch (IllegalArgumentException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    public static String encodeCursor(long afterId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(afterId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static long decodeCursor(String cursor) {
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.Faculty;
+
+public record FacultyDto(Long id, String name, String color) {
+
+    public static FacultyDto from(Faculty faculty) {
+        return faculty == null ? null : new FacultyDto(faculty.getId(), faculty.getName(), faculty.getColor());
+    }
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.index.MatchKind;
+import ru.hogwarts.school.index.NameIndex;
+
+public record NameMatch(String type, long id, String name, MatchKind match, int distance) {
+
+    public static NameMatch of(String type, NameIndex.Match match) {
+        return new NameMatch(type, match.id(), match.name(), match.kind(), match.distance());
+    }
+}
@@ -0,0 +1,14 @@
+package ru.hogwarts.school.dto;
+
+public record ProcessingStats(boolean ordered,
+                              boolean virtualThreads,
+                              int concurrency,
+                              int chunkSize,
+                              long students,
+                              int chunks,
+                              long elapsedMillis) {
+
+    public double getStudentsPerSecond() {
+        return elapsedMillis == 0 ? students * 1000.0 : students * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.Student;
+
+public record StudentDto(Long id, String name, int age, FacultyDto faculty) {
+
+    public static StudentDto from(Student student) {
+        return student == null ? null
+                : new StudentDto(student.getId(), student.getName(), student.getAge(), FacultyDto.from(student.getFaculty()));
+    }
+}
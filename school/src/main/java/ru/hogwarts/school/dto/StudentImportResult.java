@@ -0,0 +1,6 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public record StudentImportResult(long imported, long rejected, boolean completed, List<String> errors) {
+}
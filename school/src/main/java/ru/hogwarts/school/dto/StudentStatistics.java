@@ -0,0 +1,14 @@
+package ru.hogwarts.school.dto;
+
+import java.util.Map;
+
+public record StudentStatistics(long count,
+                                long ageSum,
+                                Map<Long, Long> countByFaculty,
+                                long withoutFaculty,
+                                Map<Integer, Long> ageHistogram) {
+
+    public double getAverageAge() {
+        return count == 0 ? 0.0 : (double) ageSum / count;
+    }
+}
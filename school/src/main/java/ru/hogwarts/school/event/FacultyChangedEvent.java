@@ -0,0 +1,4 @@
+package ru.hogwarts.school.event;
+
+public record FacultyChangedEvent(Long facultyId) {
+}
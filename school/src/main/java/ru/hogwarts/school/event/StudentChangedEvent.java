@@ -0,0 +1,8 @@
+package ru.hogwarts.school.event;
+
+/**
+ * Published after a student was created, changed or deleted; {@code before} is null for a new student
+ * and {@code after} is null for a deleted one.
+ */
+public record StudentChangedEvent(Long studentId, StudentState before, StudentState after) {
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.event;
+
+import ru.hogwarts.school.model.Student;
+
+public record StudentState(String name, int age, Long facultyId) {
+
+    public static StudentState of(Student student) {
+        Long facultyId = student.getFaculty() != null ? student.getFaculty().getId() : null;
+        return new StudentState(student.getName(), student.getAge(), facultyId);
+    }
+}
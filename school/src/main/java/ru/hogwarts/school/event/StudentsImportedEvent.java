@@ -0,0 +1,9 @@
+package ru.hogwarts.school.event;
+
+import java.util.Set;
+
+/**
+ * Published once after a bulk import instead of a {@link StudentChangedEvent} per row.
+ */
+public record StudentsImportedEvent(long count, Set<Long> facultyIds) {
+}
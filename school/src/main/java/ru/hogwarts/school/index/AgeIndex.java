@@ -0,0 +1,114 @@
+package ru.hogwarts.school.index;
+
+import java.util.Arrays;
+
+/**
+ * Student ids bucketed by age. Ages have a tiny cardinality, so the sorted age array is searched in O(log a)
+ * and every bucket keeps its ids in a sorted {@code long[]}, which makes removals O(log n) lookups plus a shift
+ * and keeps range results in (age, id) order. Not thread-safe, callers guard it.
+ */
+public class AgeIndex {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private int[] ages = new int[0];
+    private long[][] buckets = new long[0][];
+    private int[] sizes = new int[0];
+    private long size;
+
+    public void add(int age, long id) {
+        int bucket = Arrays.binarySearch(ages, age);
+        if (bucket < 0) {
+            bucket = insertBucket(-bucket - 1, age);
+        }
+        long[] ids = buckets[bucket];
+        int count = sizes[bucket];
+        int position = count == 0 || ids[count - 1] < id ? count : Arrays.binarySearch(ids, 0, count, id);
+        if (position >= 0 && position < count) {
+            return;
+        }
+        position = position < 0 ? -position - 1 : position;
+        if (count == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            buckets[bucket] = ids;
+        }
+        System.arraycopy(ids, position, ids, position + 1, count - position);
+        ids[position] = id;
+        sizes[bucket]++;
+        size++;
+    }
+
+    public void remove(int age, long id) {
+        int bucket = Arrays.binarySearch(ages, age);
+        if (bucket < 0) {
+            return;
+        }
+        long[] ids = buckets[bucket];
+        int count = sizes[bucket];
+        int position = Arrays.binarySearch(ids, 0, count, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, count - position - 1);
+        sizes[bucket]--;
+        size--;
+    }
+
+    /**
+     * Ids of students aged {@code min} to {@code max} inclusive, ordered by age and then id.
+     */
+    public long[] idsBetween(int min, int max) {
+        int from = lowerBound(min);
+        int to = lowerBound((long) max + 1);
+        long[] result = new long[Math.toIntExact(count(from, to))];
+        int offset = 0;
+        for (int bucket = from; bucket < to; bucket++) {
+            System.arraycopy(buckets[bucket], 0, result, offset, sizes[bucket]);
+            offset += sizes[bucket];
+        }
+        return result;
+    }
+
+    public long countBetween(int min, int max) {
+        return count(lowerBound(min), lowerBound((long) max + 1));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private long count(int from, int to) {
+        long count = 0;
+        for (int bucket = from; bucket < to; bucket++) {
+            count += sizes[bucket];
+        }
+        return count;
+    }
+
+    private int lowerBound(long age) {
+        if (age > Integer.MAX_VALUE) {
+            return ages.length;
+        }
+        int position = Arrays.binarySearch(ages, (int) age);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    private int insertBucket(int position, int age) {
+        int length = ages.length;
+        int[] newAges = new int[length + 1];
+        long[][] newBuckets = new long[length + 1][];
+        int[] newSizes = new int[length + 1];
+        System.arraycopy(ages, 0, newAges, 0, position);
+        System.arraycopy(buckets, 0, newBuckets, 0, position);
+        System.arraycopy(sizes, 0, newSizes, 0, position);
+        System.arraycopy(ages, position, newAges, position + 1, length - position);
+        System.arraycopy(buckets, position, newBuckets, position + 1, length - position);
+        System.arraycopy(sizes, position, newSizes, position + 1, length - position);
+        newAges[position] = age;
+        newBuckets[position] = new long[INITIAL_BUCKET_CAPACITY];
+        ages = newAges;
+        buckets = newBuckets;
+        sizes = newSizes;
+        return position;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.hogwarts.school.index;
+
+/**
+ * How a name matched a query, from the best to the weakest match.
+ */
+public enum MatchKind {
+    EXACT,
+    PREFIX,
+    WORD_PREFIX,
+    SUBSTRING,
+    FUZZY
+}
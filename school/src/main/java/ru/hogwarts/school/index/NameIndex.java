@@ -0,0 +1,359 @@
+package ru.hogwarts.school.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Names by id for typeahead search. Prefixes of the whole name and of every word are answered from a sorted
+ * term map, substrings by intersecting sorted trigram {@link Postings}, and misspellings by a bounded edit
+ * distance to the distinct words that share trigrams with the query. Not thread-safe, callers guard it.
+ */
+public class NameIndex {
+
+    public static final Comparator<Match> RANKING = Comparator.comparing(Match::kind)
+            .thenComparingInt(Match::distance)
+            .thenComparingInt(match -> match.name().length())
+            .thenComparing(Match::name);
+
+    /**
+     * Every stage collects a few times more candidates than requested so the ranking can choose among them.
+     */
+    private static final int CANDIDATE_FACTOR = 4;
+    private static final int GRAM = 3;
+    private static final int MAX_FUZZY_CANDIDATES = 1000;
+
+    public record Match(long id, String name, MatchKind kind, int distance) {
+    }
+
+    private record Entry(String name, String normalized) {
+    }
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Postings> trigrams = new HashMap<>();
+    private final Map<String, Set<String>> wordTrigrams = new HashMap<>();
+
+    public void put(long id, String name) {
+        remove(id);
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        entries.put(id, new Entry(name, normalized));
+        for (String term : termsOf(normalized)) {
+            terms.computeIfAbsent(term, key -> new Postings()).add(id);
+        }
+        for (String word : normalized.split(" ")) {
+            for (String gram : trigramsOf(word)) {
+                wordTrigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(word);
+            }
+        }
+        for (String gram : trigramsOf(normalized)) {
+            trigrams.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    public void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String term : termsOf(entry.normalized())) {
+            removePosting(terms, term, id);
+        }
+        for (String word : entry.normalized().split(" ")) {
+            if (terms.containsKey(word)) {
+                continue;
+            }
+            for (String gram : trigramsOf(word)) {
+                Set<String> words = wordTrigrams.get(gram);
+                if (words != null && words.remove(word) && words.isEmpty()) {
+                    wordTrigrams.remove(gram);
+                }
+            }
+        }
+        for (String gram : trigramsOf(entry.normalized())) {
+            removePosting(trigrams, gram, id);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<Match> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int wanted = limit * CANDIDATE_FACTOR;
+        Map<Long, Match> found = new LinkedHashMap<>();
+        findPrefixes(normalized, wanted, found);
+        if (found.size() < wanted && normalized.length() >= GRAM) {
+            findSubstrings(normalized, wanted, found);
+        }
+        if (found.size() < limit && normalized.length() >= GRAM) {
+            findSimilar(normalized, wanted, found);
+        }
+        return found.values().stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .toList();
+    }
+
+    private void findPrefixes(String query, int wanted, Map<Long, Match> found) {
+        for (Map.Entry<String, Postings> term : terms.subMap(query, true, query + Character.MAX_VALUE, false).entrySet()) {
+            Postings ids = term.getValue();
+            // the query's own term holds the exact matches, which rank first and are never cut off
+            boolean complete = term.getKey().equals(query);
+            for (int i = 0; i < ids.size(); i++) {
+                if (!complete && found.size() >= wanted) {
+                    return;
+                }
+                long id = ids.get(i);
+                Entry entry = entries.get(id);
+                MatchKind kind = entry.normalized().equals(query) ? MatchKind.EXACT
+                        : entry.normalized().startsWith(query) ? MatchKind.PREFIX
+                        : MatchKind.WORD_PREFIX;
+                found.merge(id, new Match(id, entry.name(), kind, 0), NameIndex::better);
+            }
+            if (found.size() >= wanted) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Leapfrog intersection of the query's trigram postings: every posting gallops to the largest id seen so far,
+     * so long runs of ids missing from any posting are skipped instead of walked. Ids in all postings contain
+     * every trigram of the query and are checked for the whole substring.
+     */
+    private void findSubstrings(String query, int wanted, Map<Long, Match> found) {
+        Set<String> grams = trigramsOf(query);
+        Postings[] postings = new Postings[grams.size()];
+        int n = 0;
+        for (String gram : grams) {
+            Postings ids = trigrams.get(gram);
+            if (ids == null) {
+                return;
+            }
+            postings[n++] = ids;
+        }
+        // the rarest trigram proposes candidates, the others reject them quickly
+        Arrays.sort(postings, Comparator.comparingInt(Postings::size));
+        int[] positions = new int[n];
+        long candidate = postings[0].get(0);
+        while (true) {
+            boolean inAll = true;
+            for (int i = 0; i < n; i++) {
+                positions[i] = postings[i].advance(positions[i], candidate);
+                if (positions[i] == postings[i].size()) {
+                    return;
+                }
+                long id = postings[i].get(positions[i]);
+                if (id != candidate) {
+                    candidate = id;
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                Entry entry = entries.get(candidate);
+                if (!found.containsKey(candidate) && entry.normalized().contains(query)) {
+                    found.put(candidate, new Match(candidate, entry.name(), MatchKind.SUBSTRING, 0));
+                    if (found.size() >= wanted) {
+                        return;
+                    }
+                }
+                if (++positions[0] == postings[0].size()) {
+                    return;
+                }
+                candidate = postings[0].get(positions[0]);
+            }
+        }
+    }
+
+    /**
+     * Misspellings are looked up among the distinct words rather than the names: the longest query word is
+     * compared with the words sharing enough of its trigrams, and the names holding the closest of those words
+     * are checked against the remaining query words. Common trigrams cost one pass over a few thousand words
+     * instead of over every name containing them.
+     */
+    private void findSimilar(String query, int wanted, Map<Long, Match> found) {
+        String[] queryWords = query.split(" ");
+        String driver = Arrays.stream(queryWords).max(Comparator.comparingInt(String::length)).orElseThrow();
+        if (driver.length() < GRAM) {
+            return;
+        }
+        List<Match> similar = new ArrayList<>();
+        collectSimilar(queryWords, driver, wanted, found, similar);
+        similar.sort(RANKING);
+        for (Match match : similar) {
+            found.putIfAbsent(match.id(), match);
+        }
+    }
+
+    private void collectSimilar(String[] queryWords, String driver, int wanted, Map<Long, Match> found,
+                                List<Match> similar) {
+        int checked = 0;
+        for (String word : similarWords(driver)) {
+            Postings ids = terms.get(word);
+            for (int i = 0; i < ids.size() && found.size() + similar.size() < wanted; i++) {
+                if (checked++ == MAX_FUZZY_CANDIDATES) {
+                    return;
+                }
+                long id = ids.get(i);
+                if (found.containsKey(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                int distance = distanceToWords(queryWords, entry.normalized());
+                if (distance >= 0) {
+                    similar.add(new Match(id, entry.name(), MatchKind.FUZZY, distance));
+                }
+            }
+        }
+    }
+
+    /**
+     * Words within edit distance of {@code query}, closest first. Candidates must share enough trigrams with it,
+     * and only the {@link #MAX_FUZZY_CANDIDATES} sharing the most are compared.
+     */
+    private List<String> similarWords(String query) {
+        int maxDistance = maxDistance(query);
+        Set<String> queryGrams = trigramsOf(query);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String word : wordTrigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+        // every edit changes at most three trigrams
+        int minShared = Math.max(1, queryGrams.size() - GRAM * maxDistance);
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() >= minShared) {
+                candidates.add(candidate);
+            }
+        }
+        if (candidates.size() > MAX_FUZZY_CANDIDATES) {
+            candidates.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            candidates = candidates.subList(0, MAX_FUZZY_CANDIDATES);
+        }
+        Map<String, Integer> distances = new HashMap<>();
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            int distance = wordDistance(query, candidate.getKey(), maxDistance);
+            if (distance <= maxDistance) {
+                distances.put(candidate.getKey(), distance);
+            }
+        }
+        List<String> words = new ArrayList<>(distances.keySet());
+        words.sort(Comparator.comparing(distances::get));
+        return words;
+    }
+
+    /**
+     * Sum of the distances of every query word to its closest word of the name, or -1 if one has none close enough.
+     */
+    private static int distanceToWords(String[] queryWords, String normalized) {
+        String[] words = normalized.split(" ");
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int maxDistance = maxDistance(queryWord);
+            int best = maxDistance + 1;
+            for (String word : words) {
+                best = Math.min(best, wordDistance(queryWord, word, maxDistance));
+            }
+            if (best > maxDistance) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int wordDistance(String query, String word, int maxDistance) {
+        int distance = distance(query, word, maxDistance);
+        if (word.length() > query.length()) {
+            // typeahead: the query may be a misspelled beginning of the word
+            distance = Math.min(distance, distance(query, word.substring(0, query.length()), maxDistance));
+        }
+        return distance;
+    }
+
+    private static int maxDistance(String word) {
+        return word.length() < GRAM ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, or {@code maxDistance + 1} as soon as it is known to be larger than {@code maxDistance}.
+     */
+    static int distance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    private static Match better(Match a, Match b) {
+        return RANKING.compare(a, b) <= 0 ? a : b;
+    }
+
+    private static <K> void removePosting(Map<K, Postings> postings, K key, long id) {
+        Postings ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> termsOf(String normalized) {
+        Set<String> result = new HashSet<>();
+        result.add(normalized);
+        for (String word : normalized.split(" ")) {
+            result.add(word);
+        }
+        return result;
+    }
+
+    private static Set<String> trigramsOf(String normalized) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++) {
+            result.add(normalized.substring(i, i + GRAM));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.hogwarts.school.index;
+
+import java.util.Arrays;
+
+/**
+ * Ids of one term or trigram, kept sorted in a {@code long[]}. That costs 8 bytes per id instead of the
+ * ~50 of a {@code HashSet<Long>} entry, and sorted postings can be intersected by skipping ahead.
+ * Ids arrive mostly in ascending order, so adding one is usually an append.
+ */
+final class Postings {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    boolean add(long id) {
+        int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0 && position < size) {
+            return false;
+        }
+        position = position < 0 ? -position - 1 : position;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Position of the first id at or after {@code from} that is not smaller than {@code target}, or {@link #size()}.
+     * Gallops from {@code from}, so walking a posting with increasing targets costs O(log gap) per step.
+     */
+    int advance(int from, long target) {
+        if (from >= size || ids[from] >= target) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        while (low + step < size && ids[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        int position = Arrays.binarySearch(ids, low + 1, Math.min(size, low + step + 1), target);
+        return position < 0 ? -position - 1 : position;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hogwarts.school.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.cache.SingleFlight;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+@Component
+public class SchoolMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter avatarBytesIn;
+    private final Counter avatarBytesOut;
+
+    public SchoolMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.avatarBytesIn = avatarBytes("in");
+        this.avatarBytesOut = avatarBytes("out");
+    }
+
+    public void avatarReceived(long bytes) {
+        avatarBytesIn.increment(bytes);
+    }
+
+    public void avatarSent(long bytes) {
+        avatarBytesOut.increment(bytes);
+    }
+
+    public void monitor(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+
+    /**
+     * Publishes {@link CacheStats} under the same meter names Caffeine caches use.
+     */
+    public void monitor(Supplier<CacheStats> stats, String name) {
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hits())
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().misses())
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictions())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", stats, s -> s.get().size())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.weight", stats, s -> s.get().weight())
+                .tag("cache", name)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    public void monitor(SingleFlight<?, ?> singleFlight, String name) {
+        FunctionCounter.builder("school.single.flight.calls", singleFlight, SingleFlight::executed)
+                .tags("call", name, "result", "executed")
+                .register(registry);
+        FunctionCounter.builder("school.single.flight.calls", singleFlight, SingleFlight::shared)
+                .tags("call", name, "result", "shared")
+                .register(registry);
+    }
+
+    public void monitor(ExecutorService executor, String name) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+    }
+
+    private Counter avatarBytes(String direction) {
+        return Counter.builder("school.avatar.bytes")
+                .tag("direction", direction)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+}
@@ -1,24 +1,25 @@
 package ru.hogwarts.school.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Setter
 @Getter
 @NoArgsConstructor
 @EqualsAndHashCode
 @ToString
 @Entity
-@Table(name = "avatar")
+@Table(name = "avatar", indexes = @Index(name = "avatar_content_hash", columnList = "content_hash"))
 public class Avatar {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "file_path")
-    private String filePath;
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 
     @Column(name = "media_type")
     private String mediaType;
@@ -26,17 +27,19 @@ public class Avatar {
     @Column(name = "file_size")
     private long fileSize;
 
-    @Lob
-    @JsonIgnore
-    private byte[] data;
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", unique = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Student student;
 
-    public Avatar(String filePath, String mediaType, long fileSize, Student student) {
-        this.filePath = filePath;
+    public Avatar(String contentHash, String mediaType, long fileSize, Student student) {
+        this.contentHash = contentHash;
         this.mediaType = mediaType;
         this.fileSize = fileSize;
         this.student = student;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "avatar_blob")
+public class AvatarBlob {
+
+    @Id
+    @Column(name = "storage_key", length = 96)
+    private String storageKey;
+
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+}
@@ -2,6 +2,8 @@ package ru.hogwarts.school.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -11,6 +13,8 @@ import java.util.List;
 @EqualsAndHashCode
 @Entity
 @Table(name = "faculty")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "faculty")
 public class Faculty {
 
     @Id
@@ -24,7 +28,9 @@ public class Faculty {
     @Column(name = "color")
     private String color;
 
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "faculty")
+    @OneToMany(mappedBy = "faculty")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "faculty-students")
+    @EqualsAndHashCode.Exclude
     private List<Student> studentList;
 
     public Faculty(String name, String color) {
@@ -2,6 +2,8 @@ package ru.hogwarts.school.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Setter
 @Getter
@@ -9,10 +11,13 @@ import lombok.*;
 @EqualsAndHashCode
 @Entity
 @Table(name = "student")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -22,7 +27,7 @@ public class Student {
     @Column(name = "age")
     private int age;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
 
@@ -0,0 +1,10 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.AvatarBlob;
+
+@Repository
+public interface AvatarBlobRepository extends JpaRepository<AvatarBlob, String> {
+    void deleteByStorageKeyStartingWith(String prefix);
+}
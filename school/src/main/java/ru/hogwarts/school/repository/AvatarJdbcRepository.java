@@ -0,0 +1,80 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Writes avatar rows for the single upload and the bulk import alike, so both take the same locks. Every method
+ * must run inside a transaction: {@link #lockStudents} holds the student rows until it ends.
+ */
+@Repository
+public class AvatarJdbcRepository {
+
+    private static final String COLUMNS = "student_id, content_hash, media_type, file_size, updated_at";
+    private static final String VALUES = ":studentId, :hash, :mediaType, :fileSize, :updatedAt";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    public AvatarJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        // H2, used by the tests, has no ON CONFLICT ... DO UPDATE
+        this.upsertSql = "PostgreSQL".equals(database)
+                ? "INSERT INTO avatar (" + COLUMNS + ") VALUES (" + VALUES + ") ON CONFLICT (student_id) DO UPDATE SET "
+                + "content_hash = EXCLUDED.content_hash, media_type = EXCLUDED.media_type, "
+                + "file_size = EXCLUDED.file_size, updated_at = EXCLUDED.updated_at"
+                : "MERGE INTO avatar (" + COLUMNS + ") KEY (student_id) VALUES (" + VALUES + ")";
+    }
+
+    /**
+     * Locks the rows of the students that exist and returns their ids. The student row is locked rather than the
+     * avatar row, which a first upload does not have yet, so two writers of the same student always see each
+     * other's content hash. Ids are locked in order, concurrent batches cannot deadlock.
+     */
+    public Set<Long> lockStudents(Collection<Long> studentIds) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM student WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", studentIds), Long.class));
+    }
+
+    /**
+     * Returns the content hash of every student that has an avatar, call it after {@link #lockStudents}.
+     */
+    public Map<Long, String> findContentHashes(Collection<Long> studentIds) {
+        Map<Long, String> hashes = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return hashes;
+        }
+        jdbcTemplate.query("SELECT student_id, content_hash FROM avatar WHERE student_id IN (:ids) FOR UPDATE",
+                new MapSqlParameterSource("ids", studentIds),
+                rs -> {
+                    hashes.put(rs.getLong("student_id"), rs.getString("content_hash"));
+                });
+        return hashes;
+    }
+
+    public void upsert(Collection<AvatarRow> rows) {
+        SqlParameterSource[] params = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("studentId", row.studentId())
+                        .addValue("hash", row.contentHash())
+                        .addValue("mediaType", row.mediaType())
+                        .addValue("fileSize", row.fileSize())
+                        .addValue("updatedAt", Timestamp.from(row.updatedAt())))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(upsertSql, params);
+    }
+
+    public record AvatarRow(Long studentId, String contentHash, String mediaType, long fileSize, Instant updatedAt) {
+    }
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.model.Avatar;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvatarRepository extends JpaRepository<Avatar, Long> {
+    Optional<Avatar> findByStudentId(Long studentId);
+
+    boolean existsByContentHash(String contentHash);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.mediaType, a.fileSize, a.contentHash) " +
+            "FROM Avatar AS a ORDER BY a.id")
+    List<AvatarInfo> findAllInfo(Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarInfo(a.id, a.student.id, a.mediaType, a.fileSize, a.contentHash) " +
+            "FROM Avatar AS a WHERE a.id > :afterId ORDER BY a.id")
+    List<AvatarInfo> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.model.Faculty;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface FacultyRepository extends JpaRepository<Faculty, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Collection<Faculty> findFacultiesByColorIgnoreCaseOrNameIgnoreCase(String color, String name);
+
+    Faculty findFacultyByNameIgnoreCase(String name);
+
+    @EntityGraph(attributePaths = "studentList")
+    Optional<Faculty> findWithStudentsByNameIgnoreCase(String name);
+
+    @Query("SELECT f.name FROM Faculty AS f ORDER BY LENGTH(f.name) DESC LIMIT 1")
+    String getLongestNameFaculty();
+}
@@ -0,0 +1,84 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.model.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface StudentRepository extends JpaRepository<Student, Long> {
+    @EntityGraph(attributePaths = "faculty")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Collection<Student> findStudentsByAge(int age);
+
+    @EntityGraph(attributePaths = "faculty")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Collection<Student> findByAgeBetween(int min, int max);
+
+    @EntityGraph(attributePaths = "faculty")
+    Student findStudentByNameIgnoreCase(String name);
+
+    @EntityGraph(attributePaths = "faculty")
+    Optional<Student> findWithFacultyById(long id);
+
+    @EntityGraph(attributePaths = "faculty")
+    List<Student> findWithFacultyByIdIn(Collection<Long> ids);
+
+    long countByAgeBetween(int min, int max);
+
+    @Query("SELECT COUNT(*) FROM Student AS s")
+    int getCountAllByStudents();
+
+    @Query("SELECT AVG(s.age) FROM Student AS s")
+    double getAvgAgeByAllStudents();
+
+    @Query("SELECT s.age, COUNT(s) FROM Student AS s GROUP BY s.age")
+    List<Object[]> countByAge();
+
+    @Query("SELECT s.faculty.id, COUNT(s) FROM Student AS s GROUP BY s.faculty.id")
+    List<Object[]> countByFaculty();
+
+    @Query("FROM Student AS s LEFT JOIN FETCH s.faculty ORDER BY s.id DESC LIMIT 5")
+    List<Student> get5StudentsAscId();
+
+    @Query("SELECT UPPER(s.name) FROM Student AS s " +
+            "WHERE s.name >= :prefix AND s.name < :upperBound AND s.name LIKE :pattern ESCAPE '!' " +
+            "ORDER BY UPPER(s.name)")
+    List<String> findUpperCaseNamesByPrefix(@Param("prefix") String prefix,
+                                            @Param("upperBound") String upperBound,
+                                            @Param("pattern") String pattern);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentInfo(s.id, s.name, s.age, s.faculty.id) FROM Student AS s " +
+            "WHERE s.name >= :prefix AND s.name < :upperBound AND s.name LIKE :pattern ESCAPE '!' " +
+            "ORDER BY s.name")
+    List<StudentInfo> findByNamePrefix(@Param("prefix") String prefix,
+                                       @Param("upperBound") String upperBound,
+                                       @Param("pattern") String pattern,
+                                       Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentInfo(s.id, s.name, s.age, s.faculty.id) FROM Student AS s " +
+            "WHERE LOWER(s.name) LIKE :pattern ESCAPE '!' " +
+            "ORDER BY LOWER(s.name)")
+    List<StudentInfo> findByNamePrefixIgnoreCase(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentInfo(s.id, s.name, s.age, s.faculty.id) " +
+            "FROM Student AS s WHERE s.id > :afterId ORDER BY s.id")
+    List<StudentInfo> findPageAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT new ru.hogwarts.school.dto.StudentInfo(s.id, s.name, s.age, s.faculty.id) " +
+            "FROM Student AS s ORDER BY s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<StudentInfo> streamAllInfo();
+}
@@ -0,0 +1,59 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.AvatarImportStatus;
+import ru.hogwarts.school.dto.AvatarImportStatus.EntryError;
+import ru.hogwarts.school.dto.AvatarImportStatus.State;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AvatarImportJob {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final UUID id = UUID.randomUUID();
+    private final Instant startedAt = Instant.now();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final ConcurrentLinkedQueue<EntryError> errors = new ConcurrentLinkedQueue<>();
+
+    private volatile int total;
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+
+    UUID getId() {
+        return id;
+    }
+
+    boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    void setTotal(int total) {
+        this.total = total;
+    }
+
+    void entrySucceeded() {
+        succeeded.incrementAndGet();
+    }
+
+    void entryFailed(String entry, String message) {
+        if (failed.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            errors.add(new EntryError(entry, message));
+        }
+    }
+
+    void finish(State state) {
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    AvatarImportStatus toStatus() {
+        return new AvatarImportStatus(id, state, total, succeeded.get(), failed.get(),
+                List.copyOf(new ArrayList<>(errors)), startedAt, finishedAt);
+    }
+}
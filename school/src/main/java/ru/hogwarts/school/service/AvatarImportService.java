@@ -0,0 +1,424 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.config.TaskExecutors;
+import ru.hogwarts.school.dto.AvatarImportStatus;
+import ru.hogwarts.school.dto.AvatarImportStatus.State;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.repository.AvatarJdbcRepository;
+import ru.hogwarts.school.repository.AvatarJdbcRepository.AvatarRow;
+import ru.hogwarts.school.storage.AvatarContentGuard;
+import ru.hogwarts.school.storage.AvatarStorage;
+import ru.hogwarts.school.storage.ContentTooLargeException;
+import ru.hogwarts.school.storage.StoredContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+@Service
+@Observed(name = "school.service")
+public class AvatarImportService {
+
+    public static final String ARCHIVE_PART = "archive";
+
+    private static final int MAX_KEPT_JOBS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarImportService.class);
+
+    private final AvatarStorage avatarStorage;
+    private final AvatarPreviewService avatarPreviewService;
+    private final AvatarContentGuard avatarContentGuard;
+    private final AvatarJdbcRepository avatarJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SchoolMetrics schoolMetrics;
+    private final SimpleAsyncTaskExecutor executor;
+    private final Map<UUID, AvatarImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${avatars.import.concurrency:8}")
+    private int concurrency;
+
+    @Value("${avatars.import.batch-size:100}")
+    private int batchSize;
+
+    @Value("${avatars.max-file-size:300KB}")
+    private DataSize maxFileSize;
+
+    public AvatarImportService(AvatarStorage avatarStorage,
+                               AvatarPreviewService avatarPreviewService,
+                               AvatarContentGuard avatarContentGuard,
+                               AvatarJdbcRepository avatarJdbcRepository,
+                               PlatformTransactionManager transactionManager,
+                               SchoolMetrics schoolMetrics,
+                               @Value("${avatars.import.virtual-threads:true}") boolean virtualThreads) {
+        this.avatarStorage = avatarStorage;
+        this.avatarPreviewService = avatarPreviewService;
+        this.avatarContentGuard = avatarContentGuard;
+        this.avatarJdbcRepository = avatarJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schoolMetrics = schoolMetrics;
+        this.executor = TaskExecutors.threadPerTask("avatar-import-", virtualThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    /**
+     * Moves the uploaded parts to a work directory and imports them in the background. A part named
+     * {@code archive} is read as a ZIP of avatars named by student id, any other file part is an avatar
+     * for the student id in its part name. A request holds either one archive or avatar files, anything else
+     * is rejected with {@link ImportRejectedException} before the import starts.
+     */
+    public AvatarImportStatus startImport(MultiValueMap<String, MultipartFile> parts) throws IOException {
+        logger.debug("A method was called that imports avatars");
+        List<MultipartFile> archives = parts.getOrDefault(ARCHIVE_PART, List.of());
+        if (archives.size() > 1 || !archives.isEmpty() && parts.size() > 1) {
+            throw new ImportRejectedException("An import takes either one archive or avatar files, not both");
+        }
+        Path workDir = Files.createTempDirectory("avatar-import-");
+        List<ImportEntry> entries = new ArrayList<>();
+        try {
+            if (!archives.isEmpty()) {
+                Path archivePath = workDir.resolve("archive");
+                archives.get(0).transferTo(archivePath.toFile());
+                return startArchiveImport(workDir, archivePath);
+            }
+            int spooled = 0;
+            for (Map.Entry<String, List<MultipartFile>> field : parts.entrySet()) {
+                for (MultipartFile part : field.getValue()) {
+                    // the container has already spooled the part; given an absolute File, rather than a Path,
+                    // the multipart file is moved instead of copied
+                    Path path = workDir.resolve("entry-" + spooled++);
+                    part.transferTo(path.toFile());
+                    String name = part.getOriginalFilename() != null ? part.getOriginalFilename() : field.getKey();
+                    entries.add(new ImportEntry(name, parseStudentId(field.getKey()),
+                            mediaType(part.getContentType(), name), () -> Files.newInputStream(path)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            FileSystemUtils.deleteRecursively(workDir);
+            throw e;
+        }
+        return startFilesImport(workDir, entries);
+    }
+
+    private AvatarImportStatus startArchiveImport(Path workDir, Path archivePath) {
+        AvatarImportJob job = register();
+        executor.execute(() -> {
+            try (ZipFile zipFile = new ZipFile(archivePath.toFile())) {
+                List<ImportEntry> entries = zipFile.stream()
+                        .filter(entry -> !entry.isDirectory() && !isHidden(entry.getName()))
+                        .map(entry -> archiveEntry(zipFile, entry))
+                        .toList();
+                run(job, entries);
+            } catch (IOException | RuntimeException e) {
+                fail(job, e);
+            } finally {
+                deleteWorkDir(workDir);
+            }
+        });
+        return job.toStatus();
+    }
+
+    private AvatarImportStatus startFilesImport(Path workDir, List<ImportEntry> entries) {
+        AvatarImportJob job = register();
+        executor.execute(() -> {
+            try {
+                run(job, entries);
+            } catch (RuntimeException e) {
+                fail(job, e);
+            } finally {
+                deleteWorkDir(workDir);
+            }
+        });
+        return job.toStatus();
+    }
+
+    public Optional<AvatarImportStatus> getStatus(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(AvatarImportJob::toStatus);
+    }
+
+    private AvatarImportJob register() {
+        if (jobs.size() >= MAX_KEPT_JOBS) {
+            jobs.values().removeIf(AvatarImportJob::isFinished);
+        }
+        AvatarImportJob job = new AvatarImportJob();
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private void run(AvatarImportJob job, List<ImportEntry> entries) {
+        job.setTotal(entries.size());
+        BatchWriter writer = new BatchWriter(job);
+        Semaphore permits = new Semaphore(concurrency);
+        try {
+            for (ImportEntry entry : entries) {
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        process(job, entry, writer);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            permits.acquire(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, e);
+            return;
+        }
+        writer.flush();
+        job.finish(State.COMPLETED);
+        logger.info("Avatar import {} finished", job.getId());
+    }
+
+    private void process(AvatarImportJob job, ImportEntry entry, BatchWriter writer) {
+        if (entry.studentId() == null) {
+            job.entryFailed(entry.name(), "File name must be the student id");
+            return;
+        }
+        StoredContent content;
+        try {
+            content = store(entry);
+        } catch (ContentTooLargeException e) {
+            job.entryFailed(entry.name(), "File is too big");
+            return;
+        } catch (IOException | RuntimeException e) {
+            job.entryFailed(entry.name(), "Could not store file: " + e.getMessage());
+            return;
+        }
+        if (!avatarContentGuard.pin(content.hash()) && !restore(job, entry, content)) {
+            return;
+        }
+        schoolMetrics.avatarReceived(content.size());
+        try {
+            avatarPreviewService.generatePreviews(content.hash());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not generate previews for avatar content {}", content.hash(), e);
+        }
+        writer.add(new ImportedAvatar(entry.name(), entry.studentId(), entry.mediaType(), content));
+    }
+
+    /**
+     * Stores the content again after a replaced avatar released it between storing and pinning it.
+     */
+    private boolean restore(AvatarImportJob job, ImportEntry entry, StoredContent content) {
+        try {
+            store(entry);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            avatarContentGuard.unpin(content.hash());
+            job.entryFailed(entry.name(), "Could not store file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private StoredContent store(ImportEntry entry) throws IOException {
+        try (InputStream is = entry.content().open();
+             ReadableByteChannel channel = Channels.newChannel(is)) {
+            return avatarStorage.store(channel, maxFileSize.toBytes());
+        }
+    }
+
+    private void fail(AvatarImportJob job, Exception e) {
+        logger.error("Avatar import {} failed", job.getId(), e);
+        job.finish(State.FAILED);
+    }
+
+    private void deleteWorkDir(Path workDir) {
+        try {
+            FileSystemUtils.deleteRecursively(workDir);
+        } catch (IOException e) {
+            logger.warn("Could not delete import directory {}", workDir, e);
+        }
+    }
+
+    private ImportEntry archiveEntry(ZipFile zipFile, ZipEntry entry) {
+        String fileName = StringUtils.getFilename(entry.getName());
+        return new ImportEntry(entry.getName(), parseStudentId(StringUtils.stripFilenameExtension(fileName)),
+                mediaType(null, fileName), () -> zipFile.getInputStream(entry));
+    }
+
+    private boolean isHidden(String entryName) {
+        String fileName = StringUtils.getFilename(entryName);
+        return entryName.startsWith("__MACOSX/") || fileName == null || fileName.startsWith(".");
+    }
+
+    private Long parseStudentId(String name) {
+        try {
+            return Long.valueOf(name);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String mediaType(String contentType, String fileName) {
+        if (contentType != null && !MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentType)) {
+            return contentType;
+        }
+        return MediaTypeFactory.getMediaType(fileName)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    private final class BatchWriter {
+
+        private final AvatarImportJob job;
+        private final ReentrantLock lock = new ReentrantLock();
+        private List<ImportedAvatar> pending = new ArrayList<>();
+
+        private BatchWriter(AvatarImportJob job) {
+            this.job = job;
+        }
+
+        /**
+         * Queues the avatar; the worker that fills a batch writes it after swapping it out, so the others keep
+         * adding to the next batch instead of waiting for the database.
+         */
+        void add(ImportedAvatar avatar) {
+            List<ImportedAvatar> rows = null;
+            lock.lock();
+            try {
+                pending.add(avatar);
+                if (pending.size() >= batchSize) {
+                    rows = takePending();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (rows != null) {
+                write(rows);
+            }
+        }
+
+        void flush() {
+            List<ImportedAvatar> rows;
+            lock.lock();
+            try {
+                rows = takePending();
+            } finally {
+                lock.unlock();
+            }
+            if (!rows.isEmpty()) {
+                write(rows);
+            }
+        }
+
+        private List<ImportedAvatar> takePending() {
+            List<ImportedAvatar> rows = pending;
+            pending = new ArrayList<>();
+            return rows;
+        }
+
+        /**
+         * Saves the rows, then releases the content they replaced and the content of rows that were not saved.
+         * The rows stay pinned until the transaction is over, so a concurrent release cannot delete their content.
+         * Concurrent batches, other imports and single uploads of the same students are serialized by the student
+         * row locks taken in {@link AvatarJdbcRepository#lockStudents}.
+         */
+        private void write(List<ImportedAvatar> rows) {
+            Set<String> unreferenced = new HashSet<>();
+            try {
+                save(rows, unreferenced);
+            } finally {
+                rows.forEach(row -> avatarContentGuard.unpin(row.content().hash()));
+            }
+            release(unreferenced);
+        }
+
+        private void save(List<ImportedAvatar> rows, Set<String> unreferenced) {
+            Map<Long, ImportedAvatar> latest = new LinkedHashMap<>();
+            rows.forEach(row -> latest.put(row.studentId(), row));
+            Set<Long> existingStudents = new HashSet<>();
+            Map<Long, String> previousHashes = new HashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    existingStudents.addAll(avatarJdbcRepository.lockStudents(latest.keySet()));
+                    previousHashes.putAll(avatarJdbcRepository.findContentHashes(existingStudents));
+                    upsert(latest.values(), existingStudents);
+                });
+            } catch (RuntimeException e) {
+                logger.error("Could not save a batch of imported avatars", e);
+                rows.forEach(row -> {
+                    job.entryFailed(row.name(), "Could not save avatar: " + e.getMessage());
+                    unreferenced.add(row.content().hash());
+                });
+                return;
+            }
+
+            for (ImportedAvatar row : rows) {
+                if (existingStudents.contains(row.studentId())) {
+                    avatarPreviewService.evict(row.studentId());
+                    job.entrySucceeded();
+                } else {
+                    job.entryFailed(row.name(), "Student " + row.studentId() + " not found");
+                }
+                if (latest.get(row.studentId()) != row || !existingStudents.contains(row.studentId())) {
+                    unreferenced.add(row.content().hash());
+                }
+            }
+            previousHashes.values().stream().filter(Objects::nonNull).forEach(unreferenced::add);
+        }
+
+        private void upsert(Collection<ImportedAvatar> rows, Set<Long> existingStudents) {
+            Instant now = Instant.now();
+            List<AvatarRow> avatars = rows.stream()
+                    .filter(row -> existingStudents.contains(row.studentId()))
+                    .map(row -> new AvatarRow(row.studentId(), row.content().hash(), row.mediaType(),
+                            row.content().size(), now))
+                    .toList();
+            if (!avatars.isEmpty()) {
+                avatarJdbcRepository.upsert(avatars);
+            }
+        }
+
+        private void release(Set<String> hashes) {
+            for (String hash : hashes) {
+                try {
+                    avatarContentGuard.release(hash);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not release avatar content {}", hash, e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    private record ImportEntry(String name, Long studentId, String mediaType, ContentSource content) {
+    }
+
+    private record ImportedAvatar(String name, Long studentId, String mediaType, StoredContent content) {
+    }
+}
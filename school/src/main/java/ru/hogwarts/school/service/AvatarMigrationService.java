@@ -0,0 +1,137 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves avatar content left in the legacy {@code avatar.data} large object column into {@link AvatarStorage}, then
+ * deletes the copies the old upload also wrote to the file named by {@code avatar.file_path}. Once no row has either
+ * column set, the {@code savelyev:8} changeset drops both on the next startup. The old avatar directory itself, next
+ * to the application and named {@code avatars.dir.path} by the old upload, is left for the operator to remove.
+ */
+@Service
+@ConditionalOnProperty(name = "avatars.migration.enabled", havingValue = "true")
+public class AvatarMigrationService {
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarMigrationService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AvatarStorage avatarStorage;
+
+    @Value("${avatars.migration.batch-size:100}")
+    private int batchSize;
+
+    public AvatarMigrationService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  AvatarStorage avatarStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.avatarStorage = avatarStorage;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!hasLegacyColumn("data")) {
+            logger.info("Avatar content migration skipped, the legacy columns are dropped");
+            return;
+        }
+        logger.info("Avatar content migration started");
+        int total = 0;
+        int migrated;
+        do {
+            migrated = transactionTemplate.execute(status -> migrateBatch());
+            total += migrated;
+            logger.info("Migrated {} avatars so far", total);
+        } while (migrated == batchSize);
+        logger.info("Avatar content migration finished, {} avatars migrated", total);
+        if (hasLegacyColumn("file_path")) {
+            deleteLegacyFiles();
+        }
+    }
+
+    /**
+     * Deletes the files of the avatars whose content is already in the storage. The file is deleted before its path
+     * is cleared, so a run cut short deletes it again next time.
+     */
+    private void deleteLegacyFiles() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> deleteLegacyFilesBatch());
+            total += deleted;
+        } while (deleted == batchSize);
+        logger.info("Legacy avatar files cleared for {} avatars", total);
+    }
+
+    private int deleteLegacyFilesBatch() {
+        List<Object[]> cleared = new ArrayList<>(batchSize);
+        jdbcTemplate.query("SELECT id, file_path FROM avatar WHERE file_path IS NOT NULL AND content_hash IS NOT NULL "
+                        + "ORDER BY id LIMIT ?",
+                rs -> {
+                    Path file = Path.of(rs.getString("file_path"));
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // the content is in the storage, a file left behind is only wasted space
+                        logger.warn("Legacy avatar file {} could not be deleted", file, e);
+                    }
+                    cleared.add(new Object[]{rs.getLong("id")});
+                },
+                batchSize);
+        jdbcTemplate.batchUpdate("UPDATE avatar SET file_path = NULL WHERE id = ?", cleared);
+        return cleared.size();
+    }
+
+    private boolean hasLegacyColumn(String column) {
+        Integer columns = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE LOWER(table_name) = 'avatar' AND LOWER(column_name) = ?", Integer.class, column);
+        return columns != null && columns > 0;
+    }
+
+    private int migrateBatch() {
+        List<Object[]> updates = new ArrayList<>(batchSize);
+        jdbcTemplate.query("SELECT id, data FROM avatar WHERE data IS NOT NULL AND content_hash IS NULL ORDER BY id LIMIT ?",
+                rs -> {
+                    Blob blob = rs.getBlob("data");
+                    try (InputStream is = blob.getBinaryStream()) {
+                        String hash = avatarStorage.store(Channels.newChannel(is), Long.MAX_VALUE).hash();
+                        updates.add(new Object[]{hash, rs.getLong("id")});
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        blob.free();
+                    }
+                },
+                batchSize);
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        Object[] ids = updates.stream().map(update -> update[1]).toArray();
+        jdbcTemplate.query("SELECT lo_unlink(data) FROM avatar WHERE id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                });
+        jdbcTemplate.batchUpdate("UPDATE avatar SET content_hash = ?, data = NULL WHERE id = ?", updates);
+        return updates.size();
+    }
+}
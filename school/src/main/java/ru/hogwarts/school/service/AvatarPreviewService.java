@@ -0,0 +1,93 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.cache.WeightedLruCache;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+@Service
+@Observed(name = "school.service")
+public class AvatarPreviewService {
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarPreviewService.class);
+
+    private final AvatarRepository avatarRepository;
+    private final AvatarStorage avatarStorage;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final WeightedLruCache<PreviewKey, AvatarPreview> cache;
+
+    public AvatarPreviewService(AvatarRepository avatarRepository,
+                                AvatarStorage avatarStorage,
+                                ThumbnailGenerator thumbnailGenerator,
+                                SchoolMetrics schoolMetrics,
+                                @Value("${avatars.preview.cache.max-bytes:16777216}") long cacheMaxBytes) {
+        this.avatarRepository = avatarRepository;
+        this.avatarStorage = avatarStorage;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.cache = new WeightedLruCache<>(cacheMaxBytes, preview -> preview.data().length);
+        schoolMetrics.monitor(cache::stats, "avatar-previews");
+    }
+
+    public AvatarPreview getPreview(Long studentId, PreviewSize size) {
+        return cache.get(new PreviewKey(studentId, size), key -> loadPreview(studentId, size));
+    }
+
+    public void generatePreviews(String hash) throws IOException {
+        Resource original = avatarStorage.load(hash).orElseThrow();
+        Map<PreviewSize, byte[]> previews;
+        try (InputStream is = original.getInputStream()) {
+            previews = thumbnailGenerator.generate(is);
+        }
+        for (Map.Entry<PreviewSize, byte[]> preview : previews.entrySet()) {
+            avatarStorage.storeVariant(hash, preview.getKey().variantName(), preview.getValue());
+        }
+    }
+
+    public void evict(Long studentId) {
+        cache.invalidateIf(key -> key.studentId().equals(studentId));
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private AvatarPreview loadPreview(Long studentId, PreviewSize size) {
+        Avatar avatar = avatarRepository.findByStudentId(studentId).orElseThrow();
+        String hash = avatar.getContentHash();
+        try {
+            Optional<Resource> preview = avatarStorage.loadVariant(hash, size.variantName());
+            if (preview.isEmpty()) {
+                logger.debug("Generating missing previews for avatar content {}", hash);
+                generatePreviews(hash);
+                preview = avatarStorage.loadVariant(hash, size.variantName());
+            }
+            if (preview.isPresent()) {
+                return new AvatarPreview(hash, ThumbnailGenerator.MEDIA_TYPE, preview.get().getContentAsByteArray());
+            }
+            Resource original = avatarStorage.load(hash)
+                    .orElseThrow(() -> new NoSuchElementException("Avatar content " + hash + " is missing"));
+            return new AvatarPreview(hash, avatar.getMediaType(), original.getContentAsByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record PreviewKey(Long studentId, PreviewSize size) {
+    }
+}
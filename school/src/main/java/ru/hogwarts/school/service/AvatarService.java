@@ -0,0 +1,174 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarInfo;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.repository.AvatarJdbcRepository;
+import ru.hogwarts.school.repository.AvatarJdbcRepository.AvatarRow;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.storage.AvatarContentGuard;
+import ru.hogwarts.school.storage.AvatarStorage;
+import ru.hogwarts.school.storage.ContentTooLargeException;
+import ru.hogwarts.school.storage.StoredContent;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+@Observed(name = "school.service")
+public class AvatarService {
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarService.class);
+
+    private final AvatarRepository avatarRepository;
+    private final AvatarJdbcRepository avatarJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AvatarStorage avatarStorage;
+    private final AvatarPreviewService avatarPreviewService;
+    private final AvatarContentGuard avatarContentGuard;
+    private final SchoolMetrics schoolMetrics;
+
+    @Value("${avatars.max-file-size:300KB}")
+    private DataSize maxFileSize;
+
+    public AvatarService(AvatarRepository avatarRepository,
+                         AvatarJdbcRepository avatarJdbcRepository,
+                         PlatformTransactionManager transactionManager,
+                         AvatarStorage avatarStorage,
+                         AvatarPreviewService avatarPreviewService,
+                         AvatarContentGuard avatarContentGuard,
+                         SchoolMetrics schoolMetrics) {
+        this.avatarRepository = avatarRepository;
+        this.avatarJdbcRepository = avatarJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.avatarStorage = avatarStorage;
+        this.avatarPreviewService = avatarPreviewService;
+        this.avatarContentGuard = avatarContentGuard;
+        this.schoolMetrics = schoolMetrics;
+    }
+
+    public Avatar findAvatar(Long studentId) {
+        logger.debug("A method was called showing the student's avatar");
+        return avatarRepository.findByStudentId(studentId).orElseThrow();
+    }
+
+    public Resource loadAvatar(Avatar avatar) {
+        return avatarStorage.load(avatar.getContentHash())
+                .orElseThrow(() -> new NoSuchElementException("Avatar content " + avatar.getContentHash() + " is missing"));
+    }
+
+    public void uploadAvatar(Long studentId, MultipartFile file) throws IOException {
+        logger.debug("The method that loads the avatar was called");
+        long maxBytes = maxFileSize.toBytes();
+        if (file.getSize() > maxBytes) {
+            throw new ContentTooLargeException(maxBytes);
+        }
+        Path upload = spool(file);
+        try {
+            upload(studentId, upload, file.getContentType(), maxBytes);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private void upload(Long studentId, Path upload, String mediaType, long maxBytes) throws IOException {
+        StoredContent content = store(upload, maxBytes);
+        String hash = content.hash();
+        String previousHash;
+        boolean stored = avatarContentGuard.pin(hash);
+        try {
+            if (!stored) {
+                // a replaced avatar released the same content between storing and pinning it
+                content = store(upload, maxBytes);
+            }
+            schoolMetrics.avatarReceived(content.size());
+            try {
+                avatarPreviewService.generatePreviews(hash);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not generate previews for avatar content {}, they will be retried on first request", hash, e);
+            }
+            previousHash = save(studentId, mediaType, content);
+        } catch (IOException | RuntimeException e) {
+            avatarContentGuard.unpin(hash);
+            avatarContentGuard.release(hash);
+            throw e;
+        }
+        avatarContentGuard.unpin(hash);
+        avatarPreviewService.evict(studentId);
+
+        if (!hash.equals(previousHash)) {
+            avatarContentGuard.release(previousHash);
+        }
+    }
+
+    public List<AvatarInfo> getAllAvatar(Integer pageNumber, Integer pageSize) {
+        logger.debug("A method was called showing all avatars page by page");
+        PageRequest request = PageRequest.of(pageNumber - 1, pageSize);
+        return avatarRepository.findAllInfo(request);
+    }
+
+    public CursorPage<AvatarInfo> getAvatarPage(long afterId, int size) {
+        logger.debug("A method was called showing avatars after a cursor");
+        List<AvatarInfo> fetched = avatarRepository.findPageAfter(afterId, PageRequest.ofSize(size + 1));
+        return CursorPage.of(fetched, size, AvatarInfo::id);
+    }
+
+    /**
+     * Saves the avatar row and returns the content hash it replaced. The student row lock serializes this with
+     * other uploads and imports of the same student, so the replaced hash is always the one that gets released.
+     */
+    private String save(Long studentId, String mediaType, StoredContent content) {
+        return transactionTemplate.execute(status -> {
+            if (avatarJdbcRepository.lockStudents(List.of(studentId)).isEmpty()) {
+                throw new NoSuchElementException("Student " + studentId + " not found");
+            }
+            String previousHash = avatarJdbcRepository.findContentHashes(List.of(studentId)).get(studentId);
+            avatarJdbcRepository.upsert(List.of(
+                    new AvatarRow(studentId, content.hash(), mediaType, content.size(), Instant.now())));
+            return previousHash;
+        });
+    }
+
+    /**
+     * Takes over the file the container spooled the part to. Given an absolute File, rather than a Path or a
+     * stream, the multipart file is moved instead of copied, so the upload is not written to disk once more.
+     */
+    private Path spool(MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("avatar-upload-", ".part");
+        try {
+            file.transferTo(upload.toFile());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        return upload;
+    }
+
+    /**
+     * Reads the upload through a file channel, which fills the storage's direct buffers in one read each where
+     * a channel over an input stream would hand over at most 8 KB per read.
+     */
+    private StoredContent store(Path upload, long maxBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(upload, StandardOpenOption.READ)) {
+            return avatarStorage.store(channel, maxBytes);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.hogwarts.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.cache.SingleFlight;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+@Service
+@Observed(name = "school.service")
+public class FacultyService {
+
+    private static final int ID_CHUNK_SIZE = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(FacultyService.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<Long, Faculty> facultyCache;
+    private final Cache<String, List<StudentDto>> studentsByFacultyNameCache;
+    private final SingleFlight<String, List<FacultyDto>> byColorOrNameCalls = new SingleFlight<>();
+    private final long cacheMaxSize;
+
+    private FacultyRepository facultyRepository;
+
+    public FacultyService(FacultyRepository facultyRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          SchoolMetrics schoolMetrics,
+                          @Value("${school.cache.max-size:10000}") long cacheMaxSize,
+                          @Value("${school.cache.expire-after-write:PT10M}") Duration cacheTtl) {
+        this.facultyRepository = facultyRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheMaxSize = cacheMaxSize;
+        this.facultyCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        this.studentsByFacultyNameCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        schoolMetrics.monitor(facultyCache, "faculties");
+        schoolMetrics.monitor(studentsByFacultyNameCache, "faculties-by-name");
+        schoolMetrics.monitor(byColorOrNameCalls, "faculties-by-color-or-name");
+    }
+
+    public Faculty addFaculty(Faculty faculty) {
+        logger.debug("A method was called to create a faculty");
+        Faculty saved = facultyRepository.save(faculty);
+        byColorOrNameCalls.forgetAll();
+        eventPublisher.publishEvent(new FacultyChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public Faculty findFaculty(long id) {
+        logger.debug("A method was called to output information about the faculty");
+        return facultyCache.get(id, key -> facultyRepository.findById(key).orElse(null));
+    }
+
+    /**
+     * Returns the found faculties by id; ids missing from the cache are loaded together, {@value #ID_CHUNK_SIZE} per query.
+     */
+    public Map<Long, Faculty> findFaculties(Collection<Long> ids) {
+        logger.debug("A method was called to output information about several faculties");
+        return facultyCache.getAll(ids, this::loadFaculties);
+    }
+
+    private Map<Long, Faculty> loadFaculties(Set<? extends Long> ids) {
+        List<Long> pending = List.copyOf(ids);
+        Map<Long, Faculty> faculties = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + ID_CHUNK_SIZE));
+            facultyRepository.findAllById(chunk).forEach(faculty -> faculties.put(faculty.getId(), faculty));
+        }
+        return faculties;
+    }
+
+    public Faculty editFaculty(Faculty faculty) {
+        logger.debug("A method was called to change the information about the faculty");
+        String previousName = faculty.getId() != null
+                ? facultyRepository.findById(faculty.getId()).map(Faculty::getName).orElse(null)
+                : null;
+        Faculty saved = facultyRepository.save(faculty);
+        evictStudentsOf(previousName);
+        invalidate(saved.getId());
+        return saved;
+    }
+
+    public Faculty deleteFaculty(long id) {
+        logger.debug("A method was called to delete the faculty");
+        Faculty result = findFaculty(id);
+        if (result != null) {
+            facultyRepository.deleteById(id);
+            evictStudentsOf(result.getName());
+            invalidate(id);
+        }
+        return result;
+    }
+
+    /**
+     * Returns DTOs, concurrent callers share the result of one query and must not share its entities.
+     */
+    public List<FacultyDto> findByColorOrName(String colorOrName) {
+        logger.debug("A method was called that outputs faculty by name or color");
+        return byColorOrNameCalls.execute(colorOrName.toLowerCase(Locale.ROOT),
+                () -> facultyRepository.findFacultiesByColorIgnoreCaseOrNameIgnoreCase(colorOrName, colorOrName)
+                        .stream()
+                        .map(FacultyDto::from)
+                        .toList());
+    }
+
+    /**
+     * Returns DTOs rather than the faculty's student entities, which would keep the whole graph in the cache.
+     */
+    public List<StudentDto> findByStudents(String name) {
+        logger.debug("A method was called that outputs a list of students of the faculty");
+        // Caffeine runs one load per key and makes concurrent callers wait for it, so misses are already coalesced
+        List<StudentDto> students = studentsByFacultyNameCache.get(name.toLowerCase(Locale.ROOT),
+                key -> facultyRepository.findWithStudentsByNameIgnoreCase(name)
+                        .map(faculty -> faculty.getStudentList().stream().map(StudentDto::from).toList())
+                        .orElse(null));
+        if (students == null) {
+            throw new NoSuchElementException("No faculty named " + name);
+        }
+        return students;
+    }
+
+    public String getLongestNameFaculty() {
+        return facultyRepository.getLongestNameFaculty();
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        return Map.of("byId", CacheStats.of(facultyCache, cacheMaxSize),
+                "byName", CacheStats.of(studentsByFacultyNameCache, cacheMaxSize));
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.before() != null && event.before().facultyId() != null) {
+            evictByName(event.before().facultyId());
+        }
+        if (event.after() != null && event.after().facultyId() != null) {
+            evictByName(event.after().facultyId());
+        }
+    }
+
+    @EventListener
+    public void onStudentsImported(StudentsImportedEvent event) {
+        event.facultyIds().forEach(this::evictByName);
+    }
+
+    private void invalidate(Long id) {
+        facultyCache.invalidate(id);
+        byColorOrNameCalls.forgetAll();
+        evictByName(id);
+        eventPublisher.publishEvent(new FacultyChangedEvent(id));
+    }
+
+    /**
+     * Invalidates by key rather than by scanning the cached values, so a load of the faculty's students that is
+     * still running is waited for and removed too, instead of being cached after the write.
+     */
+    private void evictByName(Long id) {
+        Faculty faculty = findFaculty(id);
+        if (faculty != null) {
+            evictStudentsOf(faculty.getName());
+        }
+    }
+
+    private void evictStudentsOf(String name) {
+        if (name != null) {
+            studentsByFacultyNameCache.invalidate(name.toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.service;
+
+public class ImportRejectedException extends RuntimeException {
+
+    public ImportRejectedException(String message) {
+        super(message);
+    }
+}
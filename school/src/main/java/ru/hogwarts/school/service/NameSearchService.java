@@ -0,0 +1,198 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.NameMatch;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.index.NameIndex;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Name search over students and faculties backed by in-memory {@link NameIndex}es. The indexes are built on
+ * startup and after imports and follow single writes through {@link StudentChangedEvent} and
+ * {@link FacultyChangedEvent}; until they are built {@link #isReady()} is false.
+ */
+@Service
+public class NameSearchService {
+
+    public static final String STUDENT = "student";
+    public static final String FACULTY = "faculty";
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(NameSearchService.class);
+
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NameIndex students;
+    private NameIndex faculties;
+    private long version;
+
+    public NameSearchService(StudentRepository studentRepository,
+                             FacultyRepository facultyRepository,
+                             @Value("${school.search.enabled:false}") boolean enabled) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return students != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches of both kinds ranked together, or only students or faculties when {@code type} names one.
+     *
+     * @throws IllegalStateException when the indexes are not built
+     */
+    public List<NameMatch> search(String query, String type, int limit) {
+        logger.debug("A method was called that searches students and faculties by name");
+        List<NameIndex.Match> studentMatches = List.of();
+        List<NameIndex.Match> facultyMatches = List.of();
+        lock.readLock().lock();
+        try {
+            if (students == null) {
+                throw new IllegalStateException("Name index is not built");
+            }
+            if (type == null || STUDENT.equals(type)) {
+                studentMatches = students.search(query, limit);
+            }
+            if (type == null || FACULTY.equals(type)) {
+                facultyMatches = faculties.search(query, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<String, NameIndex.Match>> ranked = new ArrayList<>(studentMatches.size() + facultyMatches.size());
+        studentMatches.forEach(match -> ranked.add(Map.entry(STUDENT, match)));
+        facultyMatches.forEach(match -> ranked.add(Map.entry(FACULTY, match)));
+        return ranked.stream()
+                .sorted(Map.Entry.comparingByValue(NameIndex.RANKING))
+                .limit(limit)
+                .map(entry -> NameMatch.of(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            version++;
+            if (students == null) {
+                return;
+            }
+            if (event.after() != null) {
+                students.put(event.studentId(), event.after().name());
+            } else {
+                students.remove(event.studentId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Optional<Faculty> faculty = facultyRepository.findById(event.facultyId());
+        lock.writeLock().lock();
+        try {
+            version++;
+            if (faculties == null) {
+                return;
+            }
+            if (faculty.isPresent()) {
+                faculties.put(event.facultyId(), faculty.get().getName());
+            } else {
+                faculties.remove(event.facultyId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsImportedEvent.class})
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            long startVersion;
+            lock.readLock().lock();
+            try {
+                startVersion = version;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            NameIndex freshStudents = loadStudents();
+            NameIndex freshFaculties = loadFaculties();
+
+            lock.writeLock().lock();
+            try {
+                if (version == startVersion) {
+                    students = freshStudents;
+                    faculties = freshFaculties;
+                    logger.info("Name index built with {} students and {} faculties",
+                            freshStudents.size(), freshFaculties.size());
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.warn("Names kept changing while the name index was built, search stays unavailable");
+    }
+
+    private NameIndex loadStudents() {
+        NameIndex index = new NameIndex();
+        long afterId = 0;
+        List<StudentInfo> chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(REBUILD_CHUNK_SIZE));
+        while (!chunk.isEmpty()) {
+            for (StudentInfo student : chunk) {
+                index.put(student.id(), student.name());
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+            chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(REBUILD_CHUNK_SIZE));
+        }
+        return index;
+    }
+
+    private NameIndex loadFaculties() {
+        NameIndex index = new NameIndex();
+        for (Faculty faculty : facultyRepository.findAll()) {
+            index.put(faculty.getId(), faculty.getName());
+        }
+        return index;
+    }
+}
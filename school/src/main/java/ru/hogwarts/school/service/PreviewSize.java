@@ -0,0 +1,23 @@
+package ru.hogwarts.school.service;
+
+import java.util.Locale;
+
+public enum PreviewSize {
+    SMALL(64),
+    MEDIUM(128),
+    LARGE(256);
+
+    private final int maxDimension;
+
+    PreviewSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String variantName() {
+        return "preview-" + name().toLowerCase(Locale.ROOT);
+    }
+}
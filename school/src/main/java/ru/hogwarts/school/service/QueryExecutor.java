@@ -0,0 +1,54 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool with a bounded queue for the async query endpoints. The pool should stay below the connection pool
+ * size so async queries never take every connection from the blocking endpoints; once the queue is full new
+ * queries are rejected instead of piling up.
+ */
+@Service
+public class QueryExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+
+    public QueryExecutor(SchoolMetrics schoolMetrics,
+                         @Value("${school.async.pool-size:8}") int poolSize,
+                         @Value("${school.async.queue-capacity:100}") int queueCapacity,
+                         @Value("${school.async.retry-after:PT1S}") Duration retryAfter) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("db-query-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = retryAfter;
+        schoolMetrics.monitor(executor, "db-query");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws QueryRejectedException when the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            throw new QueryRejectedException(retryAfter);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.service;
+
+import java.time.Duration;
+
+public class QueryRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public QueryRejectedException(Duration retryAfter) {
+        super("Query executor is saturated, retry after " + retryAfter);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
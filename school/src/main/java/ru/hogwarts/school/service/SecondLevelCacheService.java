@@ -0,0 +1,52 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.cache.RegionStats;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class SecondLevelCacheService {
+
+    private final Logger logger = LoggerFactory.getLogger(SecondLevelCacheService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Region statistics are only collected with {@code hibernate.generate_statistics}, which is off outside
+     * the dev and test profiles.
+     */
+    public boolean isStatisticsEnabled() {
+        return statistics().isStatisticsEnabled();
+    }
+
+    public Map<String, RegionStats> getRegionStats() {
+        logger.debug("A method was called showing the second-level cache statistics");
+        Statistics statistics = statistics();
+        Map<String, RegionStats> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, new RegionStats(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        regions.put("query-results", new RegionStats(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        return regions;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,150 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.index.AgeIndex;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps an {@link AgeIndex} of all students so age lookups don't scan the student table. The index is built
+ * on startup and after imports and follows single student writes through {@link StudentChangedEvent};
+ * until it is built {@link #isReady()} is false and callers fall back to the database.
+ */
+@Service
+public class StudentAgeIndexService {
+
+    private static final int REBUILD_CHUNK_SIZE = 5000;
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(StudentAgeIndexService.class);
+
+    private final StudentRepository studentRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private AgeIndex index;
+    private long version;
+
+    public StudentAgeIndexService(StudentRepository studentRepository,
+                                  @Value("${school.age-index.enabled:false}") boolean enabled) {
+        this.studentRepository = studentRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when the index is not built
+     */
+    public long[] idsBetween(int min, int max) {
+        lock.readLock().lock();
+        try {
+            return built().idsBetween(min, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when the index is not built
+     */
+    public long countBetween(int min, int max) {
+        lock.readLock().lock();
+        try {
+            return built().countBetween(min, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            version++;
+            if (index == null) {
+                return;
+            }
+            if (event.before() != null) {
+                index.remove(event.before().age(), event.studentId());
+            }
+            if (event.after() != null) {
+                index.add(event.after().age(), event.studentId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsImportedEvent.class})
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            long startVersion;
+            lock.readLock().lock();
+            try {
+                startVersion = version;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            AgeIndex fresh = load();
+
+            lock.writeLock().lock();
+            try {
+                if (version == startVersion) {
+                    index = fresh;
+                    logger.info("Age index built with {} students", fresh.size());
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.warn("Students kept changing while the age index was built, age queries stay on the database");
+    }
+
+    private AgeIndex load() {
+        AgeIndex fresh = new AgeIndex();
+        long afterId = 0;
+        List<StudentInfo> chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(REBUILD_CHUNK_SIZE));
+        while (!chunk.isEmpty()) {
+            for (StudentInfo student : chunk) {
+                fresh.add(student.age(), student.id());
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+            chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(REBUILD_CHUNK_SIZE));
+        }
+        return fresh;
+    }
+
+    private AgeIndex built() {
+        if (index == null) {
+            throw new IllegalStateException("Age index is not built");
+        }
+        return index;
+    }
+}
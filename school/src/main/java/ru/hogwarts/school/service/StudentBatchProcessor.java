@@ -0,0 +1,94 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.config.TaskExecutors;
+import ru.hogwarts.school.dto.ProcessingStats;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Walks all students in id order in chunks and runs a task on every chunk concurrently.
+ * In ordered mode the sink receives chunk results on the calling thread in id order,
+ * otherwise it is called from the worker threads as chunks complete and must be thread-safe.
+ */
+@Service
+public class StudentBatchProcessor {
+
+    private final Logger logger = LoggerFactory.getLogger(StudentBatchProcessor.class);
+
+    private final StudentRepository studentRepository;
+    private final SimpleAsyncTaskExecutor executor;
+    private final boolean virtualThreads;
+
+    @Value("${school.processing.concurrency:4}")
+    private int concurrency;
+
+    @Value("${school.processing.chunk-size:500}")
+    private int chunkSize;
+
+    public StudentBatchProcessor(StudentRepository studentRepository,
+                                 @Value("${school.processing.virtual-threads:false}") boolean virtualThreads) {
+        this.studentRepository = studentRepository;
+        this.executor = TaskExecutors.threadPerTask("student-processing-", virtualThreads);
+        this.virtualThreads = virtualThreads && TaskExecutors.virtualThreadsAvailable();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+
+    public <R> ProcessingStats process(Function<List<StudentInfo>, R> task, Consumer<R> sink, boolean ordered) {
+        long start = System.nanoTime();
+        Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+        Deque<CompletableFuture<R>> pending = new ArrayDeque<>();
+        long students = 0;
+        int chunks = 0;
+        long afterId = 0;
+
+        List<StudentInfo> chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(chunkSize));
+        while (!chunk.isEmpty()) {
+            students += chunk.size();
+            chunks++;
+            afterId = chunk.get(chunk.size() - 1).id();
+
+            List<StudentInfo> current = chunk;
+            CompletableFuture<R> result = CompletableFuture.supplyAsync(() -> task.apply(current), executor);
+            if (ordered) {
+                pending.addLast(result);
+                if (pending.size() >= concurrency) {
+                    sink.accept(pending.removeFirst().join());
+                }
+            } else {
+                inFlight.addLast(result.thenAccept(sink));
+                if (inFlight.size() >= concurrency) {
+                    CompletableFuture.anyOf(inFlight.toArray(CompletableFuture[]::new)).join();
+                    inFlight.removeIf(CompletableFuture::isDone);
+                }
+            }
+            chunk = studentRepository.findPageAfter(afterId, PageRequest.ofSize(chunkSize));
+        }
+
+        while (!pending.isEmpty()) {
+            sink.accept(pending.removeFirst().join());
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.debug("Processed {} students in {} chunks within {} ms", students, chunks, elapsedMillis);
+        return new ProcessingStats(ordered, virtualThreads, concurrency, chunkSize, students, chunks, elapsedMillis);
+    }
+}
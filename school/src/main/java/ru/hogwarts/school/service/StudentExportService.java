@@ -0,0 +1,84 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Observed(name = "school.service")
+public class StudentExportService {
+
+    private final Logger logger = LoggerFactory.getLogger(StudentExportService.class);
+
+    private final StudentRepository studentRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final ObjectWriter csvWriter;
+
+    public StudentExportService(StudentRepository studentRepository, ObjectMapper objectMapper) {
+        this.studentRepository = studentRepository;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(StudentInfo.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        CsvSchema schema = CsvSchema.builder()
+                .addNumberColumn("id")
+                .addColumn("name")
+                .addNumberColumn("age")
+                .addNumberColumn("facultyId")
+                .setUseHeader(true)
+                .build();
+        this.csvWriter = new CsvMapper()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writerFor(StudentInfo.class)
+                .with(schema)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        logger.debug("A method was called to export all students as {}", format);
+        try (Stream<StudentInfo> students = studentRepository.streamAllInfo()) {
+            Iterator<StudentInfo> iterator = students.iterator();
+            if (format == ExportFormat.CSV) {
+                writeCsv(iterator, out);
+            } else {
+                writeNdjson(iterator, out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<StudentInfo> students, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (students.hasNext()) {
+                rowWriter.writeValue(generator, students.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<StudentInfo> students, OutputStream out) throws IOException {
+        try (SequenceWriter writer = csvWriter.writeValues(out)) {
+            while (students.hasNext()) {
+                writer.write(students.next());
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Observed(name = "school.service")
+public class StudentImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final int MAX_ERRORS = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(StudentImportService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final FacultyRepository facultyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    public StudentImportService(EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                FacultyRepository facultyRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                @Value("${school.import.batch-size:1000}") int batchSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.facultyRepository = facultyRepository;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.readerFor(StudentInfo.class);
+        this.csvReader = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .build()
+                .readerFor(StudentInfo.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    public StudentImportResult importStudents(InputStream body, MediaType contentType) throws IOException {
+        logger.debug("A method was called to import students");
+        Set<Long> knownFaculties = new HashSet<>();
+        facultyRepository.findAll().forEach(faculty -> knownFaculties.add(faculty.getId()));
+
+        Set<Long> importedFaculties = new HashSet<>();
+        List<String> errors = new ArrayList<>();
+        List<StudentInfo> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long rejected = 0;
+        long row = 0;
+        boolean completed = true;
+
+        ObjectReader reader = TEXT_CSV.isCompatibleWith(contentType) ? csvReader : jsonReader;
+        try {
+            try (MappingIterator<StudentInfo> rows = reader.readValues(body)) {
+                while (rows.hasNextValue()) {
+                    StudentInfo student = rows.nextValue();
+                    row++;
+                    String problem = validate(student, knownFaculties);
+                    if (problem != null) {
+                        rejected++;
+                        addError(errors, "Row " + row + ": " + problem);
+                        continue;
+                    }
+                    if (student.facultyId() != null) {
+                        importedFaculties.add(student.facultyId());
+                    }
+                    batch.add(student);
+                    if (batch.size() >= batchSize) {
+                        imported += persist(batch);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                completed = false;
+                addError(errors, malformed(row, e.getOriginalMessage()));
+            } catch (RuntimeJsonMappingException e) {
+                completed = false;
+                addError(errors, malformed(row, e.getMessage()));
+            }
+            if (!batch.isEmpty()) {
+                imported += persist(batch);
+            }
+        } catch (BatchFailedException e) {
+            completed = false;
+            logger.error("Import stopped after {} students, a batch ending at row {} failed", imported, row, e.getCause());
+            addError(errors, "Rows up to " + row + " could not be saved, import stopped: "
+                    + NestedExceptionUtils.getMostSpecificCause(e.getCause()).getMessage());
+        } finally {
+            // batches already committed must reach the indexes even when the import stops on a later batch
+            // or on a broken request body
+            if (imported > 0) {
+                eventPublisher.publishEvent(new StudentsImportedEvent(imported, importedFaculties));
+            }
+        }
+        logger.info("Imported {} students, rejected {}", imported, rejected);
+        return new StudentImportResult(imported, rejected, completed, errors);
+    }
+
+    private String malformed(long row, String message) {
+        return "Row " + (row + 1) + " is malformed, import stopped: " + message;
+    }
+
+    private String validate(StudentInfo student, Set<Long> knownFaculties) {
+        if (student.name() == null || student.name().isBlank()) {
+            return "name is required";
+        }
+        if (student.age() < 0) {
+            return "age must not be negative";
+        }
+        if (student.facultyId() != null && !knownFaculties.contains(student.facultyId())) {
+            return "faculty " + student.facultyId() + " does not exist";
+        }
+        return null;
+    }
+
+    /**
+     * Persists one batch in its own transaction. The imported students are flushed and detached right away and
+     * kept out of the second-level cache, so neither the request's persistence context nor the cache grows with
+     * the size of the import.
+     */
+    private int persist(List<StudentInfo> batch) {
+        int size = batch.size();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                CacheMode cacheMode = session.getCacheMode();
+                session.setCacheMode(CacheMode.IGNORE);
+                try {
+                    for (StudentInfo info : batch) {
+                        Student student = new Student(info.name(), info.age());
+                        if (info.facultyId() != null) {
+                            student.setFaculty(entityManager.getReference(Faculty.class, info.facultyId()));
+                        }
+                        entityManager.persist(student);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                } finally {
+                    session.setCacheMode(cacheMode);
+                }
+            });
+        } catch (RuntimeException e) {
+            throw new BatchFailedException(e);
+        } finally {
+            // a rolled back batch is dropped, not retried
+            batch.clear();
+        }
+        return size;
+    }
+
+    private void addError(List<String> errors, String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Marks a batch whose transaction was rolled back, as opposed to a failure while reading the request body.
+     */
+    private static class BatchFailedException extends RuntimeException {
+
+        BatchFailedException(RuntimeException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package ru.hogwarts.school.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.cache.CacheStats;
+import ru.hogwarts.school.cache.SingleFlight;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.ProcessingStats;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Observed(name = "school.service")
+public class StudentService {
+
+    private static final int ID_CHUNK_SIZE = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(StudentService.class);
+    private final StudentRepository studentRepository;
+    private final StudentStatisticsService statisticsService;
+    private final StudentAgeIndexService ageIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StudentBatchProcessor batchProcessor;
+    private final Cache<Long, CachedStudent> studentCache;
+    /**
+     * Ticks on every faculty change; {@link #facultyChanges} holds the tick of each faculty's latest change, so an
+     * entry loaded before it, possibly while the change was being written, is recognised as stale when read.
+     */
+    private final AtomicLong ticks = new AtomicLong();
+    private final Map<Long, Long> facultyChanges = new ConcurrentHashMap<>();
+    private final SingleFlight<Integer, List<StudentDto>> byAgeCalls = new SingleFlight<>();
+    private final SingleFlight<List<Integer>, List<StudentDto>> byAgeBetweenCalls = new SingleFlight<>();
+    private final SingleFlight<String, Optional<FacultyDto>> facultyByStudentCalls = new SingleFlight<>();
+    private final long cacheMaxSize;
+
+    private StudentRepository repository;
+
+    public StudentService(StudentRepository repository, StudentRepository studentRepository,
+                          StudentStatisticsService statisticsService, StudentAgeIndexService ageIndex,
+                          ApplicationEventPublisher eventPublisher,
+                          StudentBatchProcessor batchProcessor,
+                          SchoolMetrics schoolMetrics,
+                          @Value("${school.cache.max-size:10000}") long cacheMaxSize,
+                          @Value("${school.cache.expire-after-write:PT10M}") Duration cacheTtl) {
+        this.repository = repository;
+        this.studentRepository = studentRepository;
+        this.statisticsService = statisticsService;
+        this.ageIndex = ageIndex;
+        this.eventPublisher = eventPublisher;
+        this.batchProcessor = batchProcessor;
+        this.cacheMaxSize = cacheMaxSize;
+        this.studentCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        schoolMetrics.monitor(studentCache, "students");
+        schoolMetrics.monitor(byAgeCalls, "students-by-age");
+        schoolMetrics.monitor(byAgeBetweenCalls, "students-by-age-between");
+        schoolMetrics.monitor(facultyByStudentCalls, "faculty-by-student");
+    }
+
+    public Student addStudent(Student student) {
+        logger.debug("Was invoked method for create student");
+        Student saved = repository.save(student);
+        forgetInFlightCalls();
+        eventPublisher.publishEvent(new StudentChangedEvent(saved.getId(), null, StudentState.of(saved)));
+        return saved;
+    }
+
+    public Student findStudent(long id) {
+        logger.debug("A method was called to output information about the student");
+        CachedStudent cached = studentCache.get(id, this::loadStudent);
+        while (cached != null && isStale(cached)) {
+            studentCache.invalidate(id);
+            cached = studentCache.get(id, this::loadStudent);
+        }
+        return cached == null ? null : cached.student();
+    }
+
+    /**
+     * Returns the found students by id; ids missing from the cache are loaded together, {@value #ID_CHUNK_SIZE} per query.
+     */
+    public Map<Long, Student> findStudents(Collection<Long> ids) {
+        logger.debug("A method was called to output information about several students");
+        Map<Long, Student> students = new HashMap<>();
+        Collection<Long> pending = ids;
+        while (!pending.isEmpty()) {
+            List<Long> stale = new ArrayList<>();
+            studentCache.getAll(pending, this::loadStudents).forEach((id, cached) -> {
+                if (isStale(cached)) {
+                    stale.add(id);
+                } else {
+                    students.put(id, cached.student());
+                }
+            });
+            studentCache.invalidateAll(stale);
+            pending = stale;
+        }
+        return students;
+    }
+
+    private CachedStudent loadStudent(Long id) {
+        long loadedAt = ticks.get();
+        return repository.findWithFacultyById(id).map(student -> new CachedStudent(student, loadedAt)).orElse(null);
+    }
+
+    private Map<Long, CachedStudent> loadStudents(Set<? extends Long> ids) {
+        long loadedAt = ticks.get();
+        List<Long> pending = List.copyOf(ids);
+        Map<Long, CachedStudent> students = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(pending.size(), from + ID_CHUNK_SIZE));
+            repository.findWithFacultyByIdIn(chunk)
+                    .forEach(student -> students.put(student.getId(), new CachedStudent(student, loadedAt)));
+        }
+        return students;
+    }
+
+    private boolean isStale(CachedStudent cached) {
+        Faculty faculty = cached.student().getFaculty();
+        return faculty != null && faculty.getId() != null
+                && facultyChanges.getOrDefault(faculty.getId(), -1L) >= cached.loadedAt();
+    }
+
+    public Student editStudent(Student student) {
+        logger.debug("The method of changing the student's data was called");
+        StudentState before = student.getId() != null
+                ? repository.findById(student.getId()).map(StudentState::of).orElse(null)
+                : null;
+        Student saved = repository.save(student);
+        studentCache.invalidate(saved.getId());
+        forgetInFlightCalls();
+        eventPublisher.publishEvent(new StudentChangedEvent(saved.getId(), before, StudentState.of(saved)));
+        return saved;
+    }
+
+    public Student deleteStudent(long id) {
+        logger.debug("A method was called to delete the student");
+        Student result = repository.getReferenceById(id);
+        if (result != null) {
+            StudentState before = StudentState.of(result);
+            repository.delete(result);
+            studentCache.invalidate(id);
+            forgetInFlightCalls();
+            eventPublisher.publishEvent(new StudentChangedEvent(id, before, null));
+        }
+        return result;
+    }
+
+    public List<StudentDto> findByAge(int age) {
+        logger.debug("A method was called that outputs all students of a certain age");
+        if (ageIndex.isReady()) {
+            return findIndexed(ageIndex.idsBetween(age, age));
+        }
+        return byAgeCalls.execute(age, () -> toDto(repository.findStudentsByAge(age)));
+    }
+
+    public List<StudentDto> findByAgeBetween(int min, int max) {
+        logger.debug("A method was called that outputs all students of a certain age range");
+        if (ageIndex.isReady()) {
+            return findIndexed(ageIndex.idsBetween(min, max));
+        }
+        return byAgeBetweenCalls.execute(List.of(min, max), () -> toDto(repository.findByAgeBetween(min, max)));
+    }
+
+    public long countByAgeBetween(int min, int max) {
+        logger.debug("A method was called showing the number of students of a certain age range");
+        if (ageIndex.isReady()) {
+            return ageIndex.countBetween(min, max);
+        }
+        return repository.countByAgeBetween(min, max);
+    }
+
+    /**
+     * Loads the index hits {@value #ID_CHUNK_SIZE} per query without going through {@link #studentCache}: one wide
+     * age range would otherwise replace the students {@link #findStudent} keeps hot.
+     */
+    private List<StudentDto> findIndexed(long[] ids) {
+        Map<Long, StudentDto> found = new HashMap<>();
+        for (int from = 0; from < ids.length; from += ID_CHUNK_SIZE) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(ids.length, from + ID_CHUNK_SIZE)).boxed().toList();
+            repository.findWithFacultyByIdIn(chunk)
+                    .forEach(student -> found.put(student.getId(), StudentDto.from(student)));
+        }
+        return Arrays.stream(ids).mapToObj(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public FacultyDto findByFaculty(String student) {
+        logger.debug("A method was called showing the student's faculty");
+        return facultyByStudentCalls.execute(student.toLowerCase(Locale.ROOT), () -> {
+            Student student1 = repository.findStudentByNameIgnoreCase(student);
+            return Optional.ofNullable(FacultyDto.from(student1.getFaculty()));
+        }).orElse(null);
+    }
+
+    /**
+     * Coalesced lookups hand their result to callers on other threads, so they share DTOs built by the caller that
+     * ran the query rather than entities of its persistence context.
+     */
+    private List<StudentDto> toDto(Collection<Student> students) {
+        return students.stream().map(StudentDto::from).toList();
+    }
+
+    public int getCountAllByStudents() {
+        logger.debug("A method was called showing the number of students");
+        return Math.toIntExact(statisticsService.getStatistics().count());
+    }
+
+    public double getAvgAgeByAllStudents() {
+        logger.debug("A method was called showing the average age of students");
+        return statisticsService.getStatistics().getAverageAge();
+    }
+
+    public StudentStatistics getStatistics() {
+        logger.debug("A method was called showing the student statistics");
+        return statisticsService.getStatistics();
+    }
+
+    public CacheStats getCacheStats() {
+        return CacheStats.of(studentCache, cacheMaxSize);
+    }
+
+    /**
+     * Students of the faculty are not looked for in the cache, which would miss the ones being loaded right now;
+     * every entry of the faculty loaded before this change is refused when read instead.
+     */
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        facultyChanges.merge(event.facultyId(), ticks.getAndIncrement(), Math::max);
+        forgetInFlightCalls();
+    }
+
+    @EventListener
+    public void onStudentsImported(StudentsImportedEvent event) {
+        forgetInFlightCalls();
+    }
+
+    /**
+     * Callers arriving after a write must not join a lookup that may have read the data before it.
+     */
+    private void forgetInFlightCalls() {
+        byAgeCalls.forgetAll();
+        byAgeBetweenCalls.forgetAll();
+        facultyByStudentCalls.forgetAll();
+    }
+
+    /**
+     * A cached student and the {@link #ticks} value before it was read.
+     */
+    private record CachedStudent(Student student, long loadedAt) {
+    }
+
+    public List<Student> get5StudentsAscId() {
+        logger.debug("A method was called showing the last 5 enrolled students");
+        return repository.get5StudentsAscId();
+    }
+
+    public CursorPage<StudentInfo> getStudentPage(long afterId, int size) {
+        logger.debug("A method was called showing students after a cursor");
+        List<StudentInfo> fetched = repository.findPageAfter(afterId, PageRequest.ofSize(size + 1));
+        return CursorPage.of(fetched, size, StudentInfo::id);
+    }
+
+    public List<String> getAllStudentsByNameFirstA() {
+        return studentRepository.findUpperCaseNamesByPrefix("A", upperBound("A"), likePrefix("A"));
+    }
+
+    public Double getAvgAgeStudents() {
+        return statisticsService.getStatistics().getAverageAge();
+    }
+
+    public List<StudentInfo> findByNamePrefix(String prefix, int limit, boolean ignoreCase) {
+        logger.debug("A method was called that outputs students by the beginning of the name");
+        PageRequest request = PageRequest.ofSize(limit);
+        if (ignoreCase) {
+            return repository.findByNamePrefixIgnoreCase(likePrefix(prefix.toLowerCase(Locale.ROOT)), request);
+        }
+        return repository.findByNamePrefix(prefix, upperBound(prefix), likePrefix(prefix), request);
+    }
+
+    private String likePrefix(String prefix) {
+        return prefix.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+    }
+
+    private String upperBound(String prefix) {
+        int last = prefix.length() - 1;
+        char next = (char) (prefix.charAt(last) + 1);
+        return next == 0 ? prefix + Character.MAX_VALUE : prefix.substring(0, last) + next;
+    }
+
+    /**
+     * Formats the names of all students in parallel chunks and logs them at debug level, the response only
+     * carries the processing statistics.
+     */
+    public ProcessingStats printParallelStudentsName() {
+        logger.debug("A method was called that logs student names in parallel");
+        return batchProcessor.process(this::formatNames, this::logNames, false);
+    }
+
+    public ProcessingStats printSynchronizedStudentName() {
+        logger.debug("A method was called that logs student names in parallel keeping their order");
+        return batchProcessor.process(this::formatNames, this::logNames, true);
+    }
+
+    private String formatNames(List<StudentInfo> students) {
+        StringBuilder names = new StringBuilder(students.size() * 24);
+        for (StudentInfo student : students) {
+            names.append(System.lineSeparator()).append("name = ").append(student.name());
+        }
+        return names.toString();
+    }
+
+    private void logNames(String names) {
+        logger.debug("Student names:{}", names);
+    }
+}
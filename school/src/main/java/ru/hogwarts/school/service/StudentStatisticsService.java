@@ -0,0 +1,146 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class StudentStatisticsService {
+
+    private final Logger logger = LoggerFactory.getLogger(StudentStatisticsService.class);
+
+    private final StudentRepository studentRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile StudentStatistics statistics;
+    private long version;
+
+    public StudentStatisticsService(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    public StudentStatistics getStatistics() {
+        StudentStatistics current = statistics;
+        if (current == null) {
+            reconcile();
+            current = statistics;
+        }
+        return current;
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.lock();
+        try {
+            version++;
+            StudentStatistics current = statistics;
+            if (current == null) {
+                return;
+            }
+            long count = current.count();
+            long ageSum = current.ageSum();
+            long withoutFaculty = current.withoutFaculty();
+            Map<Long, Long> countByFaculty = new HashMap<>(current.countByFaculty());
+            Map<Integer, Long> ageHistogram = new TreeMap<>(current.ageHistogram());
+
+            StudentState before = event.before();
+            if (before != null) {
+                count--;
+                ageSum -= before.age();
+                decrement(ageHistogram, before.age());
+                if (before.facultyId() == null) {
+                    withoutFaculty--;
+                } else {
+                    decrement(countByFaculty, before.facultyId());
+                }
+            }
+            StudentState after = event.after();
+            if (after != null) {
+                count++;
+                ageSum += after.age();
+                ageHistogram.merge(after.age(), 1L, Long::sum);
+                if (after.facultyId() == null) {
+                    withoutFaculty++;
+                } else {
+                    countByFaculty.merge(after.facultyId(), 1L, Long::sum);
+                }
+            }
+            statistics = new StudentStatistics(count, ageSum, Collections.unmodifiableMap(countByFaculty),
+                    withoutFaculty, Collections.unmodifiableMap(ageHistogram));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener({ApplicationReadyEvent.class, StudentsImportedEvent.class})
+    @Scheduled(fixedDelayString = "${school.statistics.reconcile-interval:PT5M}",
+            initialDelayString = "${school.statistics.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long startVersion;
+        lock.lock();
+        try {
+            startVersion = version;
+        } finally {
+            lock.unlock();
+        }
+
+        StudentStatistics fresh = load();
+
+        lock.lock();
+        try {
+            if (version != startVersion && statistics != null) {
+                logger.debug("Students changed while the statistics were reconciled, retrying on the next run");
+                return;
+            }
+            if (statistics != null && !statistics.equals(fresh)) {
+                logger.warn("Student statistics drifted from the database and were reloaded");
+            }
+            statistics = fresh;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private StudentStatistics load() {
+        long count = 0;
+        long ageSum = 0;
+        Map<Integer, Long> ageHistogram = new TreeMap<>();
+        for (Object[] row : studentRepository.countByAge()) {
+            int age = ((Number) row[0]).intValue();
+            long students = ((Number) row[1]).longValue();
+            ageHistogram.put(age, students);
+            count += students;
+            ageSum += age * students;
+        }
+        long withoutFaculty = 0;
+        Map<Long, Long> countByFaculty = new HashMap<>();
+        for (Object[] row : studentRepository.countByFaculty()) {
+            long students = ((Number) row[1]).longValue();
+            if (row[0] == null) {
+                withoutFaculty = students;
+            } else {
+                countByFaculty.put(((Number) row[0]).longValue(), students);
+            }
+        }
+        return new StudentStatistics(count, ageSum, Collections.unmodifiableMap(countByFaculty),
+                withoutFaculty, Collections.unmodifiableMap(ageHistogram));
+    }
+
+    private <K> void decrement(Map<K, Long> counts, K key) {
+        counts.computeIfPresent(key, (k, value) -> value > 1 ? value - 1 : null);
+    }
+}
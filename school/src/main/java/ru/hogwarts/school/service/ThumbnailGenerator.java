@@ -0,0 +1,155 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+@Component
+public class ThumbnailGenerator {
+
+    public static final String MEDIA_TYPE = "image/jpeg";
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private static final int LARGEST_PREVIEW = PreviewSize.LARGE.getMaxDimension();
+
+    private final Logger logger = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    private final long maxPixels;
+
+    public ThumbnailGenerator(@Value("${avatars.preview.max-pixels:16777216}") long maxPixels) {
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Returns an empty map when the content is not an image ImageIO can decode or declares more than
+     * {@code avatars.preview.max-pixels} pixels.
+     */
+    public Map<PreviewSize, byte[]> generate(InputStream original) throws IOException {
+        Map<PreviewSize, byte[]> previews = new EnumMap<>(PreviewSize.class);
+        BufferedImage source = read(original);
+        if (source == null) {
+            return previews;
+        }
+        BufferedImage current = toRgb(source);
+        PreviewSize[] sizes = PreviewSize.values();
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            current = downscale(current, sizes[i].getMaxDimension());
+            previews.put(sizes[i], encode(current));
+        }
+        return previews;
+    }
+
+    /**
+     * Checks the dimensions from the image header before decoding anything: a file within the upload size limit
+     * can still declare a raster of gigabytes. Large images are decoded subsampled, only keeping about twice the
+     * largest preview so the final reductions still go through bilinear filtering.
+     */
+    private BufferedImage read(InputStream original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Not generating previews for a {}x{} image, it exceeds {} pixels", width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * LARGEST_PREVIEW));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            graphics.drawImage(source, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private BufferedImage downscale(BufferedImage image, int maxDimension) {
+        int targetWidth = image.getWidth();
+        int targetHeight = image.getHeight();
+        int longest = Math.max(targetWidth, targetHeight);
+        if (longest > maxDimension) {
+            targetWidth = Math.max(1, Math.round((float) targetWidth * maxDimension / longest));
+            targetHeight = Math.max(1, Math.round((float) targetHeight * maxDimension / longest));
+        }
+        // Halving step by step keeps bilinear filtering from dropping pixels on large reductions
+        BufferedImage current = image;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            current = resize(current, width, height);
+        }
+        return current;
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
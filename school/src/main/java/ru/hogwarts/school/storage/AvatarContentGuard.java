@@ -0,0 +1,104 @@
+package ru.hogwarts.school.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps shared avatar content from being deleted while a new reference to it is being written. Uploads
+ * {@link #pin} the hash until their avatar row is saved, and {@link #release} deletes content only when it is
+ * neither pinned nor referenced by an avatar, checked under the same per-hash lock. A release that finds the
+ * content pinned is repeated by the last {@link #unpin}: the writer that replaced it may still hold the pin it
+ * took before committing. The guard works within one
+ * instance; instances sharing a storage would need a row lock in the database instead.
+ */
+@Component
+public class AvatarContentGuard {
+
+    private static final int STRIPES = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(AvatarContentGuard.class);
+
+    private final AvatarStorage avatarStorage;
+    private final AvatarRepository avatarRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ConcurrentHashMap<String, Integer> pins = new ConcurrentHashMap<>();
+    private final Set<String> releaseOnUnpin = ConcurrentHashMap.newKeySet();
+
+    public AvatarContentGuard(AvatarStorage avatarStorage, AvatarRepository avatarRepository) {
+        this.avatarStorage = avatarStorage;
+        this.avatarRepository = avatarRepository;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Pins the content and returns whether it is still stored. Content released between storing it and pinning
+     * it has to be stored again; the pin already protects the new copy.
+     */
+    public boolean pin(String hash) {
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            pins.merge(hash, 1, Integer::sum);
+            return avatarStorage.exists(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unpin(String hash) {
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Integer left = pins.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+            if (left == null && releaseOnUnpin.remove(hash)) {
+                deleteUnlessReferenced(hash);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not release avatar content {}", hash, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the content unless an upload has pinned it or a saved avatar still references it.
+     */
+    public boolean release(String hash) throws IOException {
+        if (hash == null) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (pins.containsKey(hash)) {
+                releaseOnUnpin.add(hash);
+                return false;
+            }
+            return deleteUnlessReferenced(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean deleteUnlessReferenced(String hash) throws IOException {
+        if (avatarRepository.existsByContentHash(hash)) {
+            return false;
+        }
+        logger.debug("Releasing avatar content {}", hash);
+        avatarStorage.delete(hash);
+        return true;
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), STRIPES)];
+    }
+}
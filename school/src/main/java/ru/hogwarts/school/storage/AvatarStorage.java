@@ -0,0 +1,34 @@
+package ru.hogwarts.school.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Optional;
+
+public interface AvatarStorage {
+
+    /**
+     * Stores the content and returns its SHA-256 hash, which is the key for all further lookups, and its size.
+     * Storing content that is already present does not create a second copy.
+     *
+     * @throws ContentTooLargeException as soon as more than {@code maxSize} bytes have been read
+     */
+    StoredContent store(ReadableByteChannel source, long maxSize) throws IOException;
+
+    Optional<Resource> load(String hash);
+
+    /**
+     * Stores derived content, such as a preview, next to the original identified by {@code hash}.
+     */
+    void storeVariant(String hash, String variant, byte[] data) throws IOException;
+
+    Optional<Resource> loadVariant(String hash, String variant);
+
+    boolean exists(String hash);
+
+    /**
+     * Deletes the original and all of its variants.
+     */
+    void delete(String hash) throws IOException;
+}
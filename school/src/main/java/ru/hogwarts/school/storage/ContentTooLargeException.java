@@ -0,0 +1,17 @@
+package ru.hogwarts.school.storage;
+
+import java.io.IOException;
+
+public class ContentTooLargeException extends IOException {
+
+    private final long maxSize;
+
+    public ContentTooLargeException(long maxSize) {
+        super("Content exceeds the maximum size of " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.model.AvatarBlob;
+import ru.hogwarts.school.repository.AvatarBlobRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "avatars.storage.type", havingValue = "database")
+public class DatabaseAvatarStorage implements AvatarStorage {
+
+    private final AvatarBlobRepository avatarBlobRepository;
+
+    public DatabaseAvatarStorage(AvatarBlobRepository avatarBlobRepository) {
+        this.avatarBlobRepository = avatarBlobRepository;
+    }
+
+    @Override
+    public StoredContent store(ReadableByteChannel source, long maxSize) throws IOException {
+        InputStream data = Channels.newInputStream(source);
+        byte[] bytes = data.readNBytes((int) Math.min(maxSize, Integer.MAX_VALUE - 9) + 1);
+        if (bytes.length > maxSize) {
+            throw new ContentTooLargeException(maxSize);
+        }
+        if (data.read() != -1) {
+            throw new IOException("Content is too large to be kept in the database");
+        }
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(bytes);
+        String hash = ContentHash.toHex(digest);
+        if (!avatarBlobRepository.existsById(hash)) {
+            avatarBlobRepository.save(new AvatarBlob(hash, bytes));
+        }
+        return new StoredContent(hash, bytes.length);
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        return avatarBlobRepository.findById(hash)
+                .map(blob -> new ByteArrayResource(blob.getData()));
+    }
+
+    @Override
+    public void storeVariant(String hash, String variant, byte[] data) {
+        avatarBlobRepository.save(new AvatarBlob(hash + "." + variant, data));
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String hash, String variant) {
+        return load(hash + "." + variant);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return avatarBlobRepository.existsById(hash);
+    }
+
+    @Override
+    @Transactional
+    public void delete(String hash) {
+        avatarBlobRepository.deleteByStorageKeyStartingWith(hash);
+    }
+}
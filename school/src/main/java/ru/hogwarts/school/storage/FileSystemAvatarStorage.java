@@ -0,0 +1,148 @@
+package ru.hogwarts.school.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+@Component
+@ConditionalOnProperty(name = "avatars.storage.type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemAvatarStorage implements AvatarStorage {
+
+    private final Logger logger = LoggerFactory.getLogger(FileSystemAvatarStorage.class);
+
+    private static final Pattern VARIANT_PATTERN = Pattern.compile("[a-z0-9-]+");
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private static final int POOLED_BUFFERS = 16;
+
+    private final DirectBufferPool buffers = new DirectBufferPool(BUFFER_SIZE, POOLED_BUFFERS);
+
+    private final Path root;
+
+    private final Path tmp;
+
+    public FileSystemAvatarStorage(@Value("${avatars.dir.path:avatars}") String avatarsDir) throws IOException {
+        this.root = Path.of(avatarsDir).toAbsolutePath();
+        this.tmp = root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public StoredContent store(ReadableByteChannel source, long maxSize) throws IOException {
+        Path tempFile = Files.createTempFile(tmp, "upload-", ".part");
+        ByteBuffer buffer = buffers.acquire();
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            long size = 0;
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxSize) {
+                        throw new ContentTooLargeException(maxSize);
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            String hash = ContentHash.toHex(digest);
+            Path target = resolve(hash);
+            if (Files.exists(target)) {
+                logger.debug("Avatar content {} is already stored", hash);
+                return new StoredContent(hash, size);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                logger.debug("Avatar content {} was stored concurrently", hash);
+            }
+            return new StoredContent(hash, size);
+        } finally {
+            buffers.release(buffer);
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        Path path = resolve(hash);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public void storeVariant(String hash, String variant, byte[] data) throws IOException {
+        Path target = resolveVariant(hash, variant);
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(tmp, "variant-", ".part");
+        try {
+            Files.write(tempFile, data);
+            Files.move(tempFile, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadVariant(String hash, String variant) {
+        Path path = resolveVariant(hash, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.isRegularFile(resolve(hash));
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Path path = resolve(hash);
+        Files.deleteIfExists(path);
+        if (!Files.isDirectory(path.getParent())) {
+            return;
+        }
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(path.getParent(), hash + ".*")) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        }
+    }
+
+    Path resolve(String hash) {
+        if (!ContentHash.isValid(hash)) {
+            throw new IllegalArgumentException("Invalid content hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path resolveVariant(String hash, String variant) {
+        if (!VARIANT_PATTERN.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid variant name: " + variant);
+        }
+        return resolve(hash).resolveSibling(hash + "." + variant);
+    }
+}
@@ -0,0 +1,4 @@
+package ru.hogwarts.school.storage;
+
+public record StoredContent(String hash, long size) {
+}
@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:6 dbms:postgresql
+-- comment: avatar_blob is keyed by storage key since previews are stored next to the originals, a key is the content hash with an optional variant suffix
+-- preconditions onFail:MARK_RAN
+-- precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'avatar_blob' AND column_name = 'content_hash'
+-- precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'avatar_blob' AND column_name = 'storage_key'
+ALTER TABLE avatar_blob RENAME COLUMN content_hash TO storage_key;
+ALTER TABLE avatar_blob ALTER COLUMN storage_key TYPE VARCHAR(96);
@@ -0,0 +1,8 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:8 dbms:postgresql
+-- comment: the avatar content lives in the storage, data and file_path are left from before it; AvatarMigrationService (avatars.migration.enabled) empties both, until then this changeset is skipped and checked again on every startup
+-- preconditions onFail:CONTINUE
+-- precondition-sql-check expectedResult:2 SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'avatar' AND column_name IN ('data', 'file_path')
+-- precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM avatar WHERE data IS NOT NULL OR file_path IS NOT NULL
+ALTER TABLE avatar DROP COLUMN data, DROP COLUMN file_path;
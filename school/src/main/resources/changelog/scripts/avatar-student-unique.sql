@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:7 dbms:postgresql
+-- comment: avatar uploads upsert on student_id; duplicates left by concurrent inserts before the constraint are dropped, keeping the latest row, content referenced only by a dropped row stays in the storage; Hibernate creates the avatar table with the constraint after Liquibase has run, so on a fresh database this changeset is skipped until the table exists
+-- preconditions onFail:CONTINUE
+-- precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'avatar'
+-- precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'avatar' AND indexdef LIKE 'CREATE UNIQUE INDEX % (student_id)'
+DELETE FROM avatar AS a USING avatar AS b WHERE a.student_id = b.student_id AND a.id < b.id;
+ALTER TABLE avatar ADD CONSTRAINT avatar_student_id_key UNIQUE (student_id);
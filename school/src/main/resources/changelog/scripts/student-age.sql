@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:5 dbms:postgresql
+-- comment: age lookups fall back to the database while the in-memory age index is not built; Hibernate creates the student table after Liquibase has run, so on a fresh database this changeset is skipped and the index is created on the second startup
+-- preconditions onFail:CONTINUE
+-- precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE INDEX age_student ON student (age);
@@ -0,0 +1,9 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:9 dbms:postgresql
+-- comment: creates the indexes of savelyev:1, whose include is ignored because it ran unguarded and failed on a fresh database, where Hibernate creates the tables after Liquibase has run; skipped until both tables exist and while the indexes are already there
+-- preconditions onFail:CONTINUE
+-- precondition-sql-check expectedResult:2 SELECT COUNT(*) FROM information_schema.tables WHERE table_name IN ('student', 'faculty')
+-- precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM pg_indexes WHERE indexname IN ('name_student', 'name_color_faculty')
+CREATE INDEX name_student ON student (name);
+CREATE INDEX name_color_faculty ON faculty (name, color);
@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:2 dbms:postgresql
+-- comment: case-insensitive prefix search on student names, LIKE 'abc%' can use text_pattern_ops under any collation
+-- preconditions onFail:CONTINUE
+-- precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+CREATE INDEX student_name_lower_prefix ON student (lower(name) text_pattern_ops);
@@ -0,0 +1,11 @@
+-- liquibase formatted sql
+
+-- changeset savelyev:3 dbms:postgresql
+-- comment: pooled id allocation for students, Hibernate reserves 50 ids per nextval so inserts can be batched
+CREATE SEQUENCE IF NOT EXISTS student_seq START WITH 1 INCREMENT BY 50;
+
+-- changeset savelyev:4 dbms:postgresql
+-- comment: continue after the ids handed out by the identity column, nextval returns the top of the first pool
+-- preconditions onFail:MARK_RAN
+-- precondition-sql-check expectedResult:1 SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'student'
+SELECT setval('student_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM student), false);
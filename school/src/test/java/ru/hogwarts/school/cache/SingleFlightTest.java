@@ -0,0 +1,129 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("тест объединения одновременных запросов")
+public class SingleFlightTest {
+
+    private static final int WAITERS = 4;
+
+    private final SingleFlight<String, List<String>> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch loaderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLoader = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    public void afterEach() {
+        releaseLoader.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("одновременные вызовы с одним ключом выполняют загрузку один раз")
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> blockingLoad("value")));
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<List<String>>> waiters = submitWaiters("other");
+        awaitShared(WAITERS);
+        releaseLoader.countDown();
+
+        List<String> result = leader.get(5, TimeUnit.SECONDS);
+        assertThat(result).containsExactly("value");
+        for (Future<List<String>> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.executed()).isEqualTo(1);
+        assertThat(singleFlight.shared()).isEqualTo(WAITERS);
+    }
+
+    @Test
+    @DisplayName("исключение загрузки получают все ожидающие")
+    public void testExceptionReachesAllWaiters() throws Exception {
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            blockingLoad("value");
+            throw new IllegalStateException("database is down");
+        }));
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<List<String>>> waiters = submitWaiters("other");
+        awaitShared(WAITERS);
+        releaseLoader.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        for (Future<List<String>> waiter : waiters) {
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("database is down");
+        }
+        assertThat(singleFlight.execute("key", () -> List.of("retry"))).containsExactly("retry");
+    }
+
+    @Test
+    @DisplayName("forgetAll отцепляет выполняющийся вызов, новые вызовы загружают заново")
+    public void testForgetAllDetachesRunningCall() throws Exception {
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> blockingLoad("before")));
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forgetAll();
+
+        assertThat(singleFlight.execute("key", () -> List.of("after"))).containsExactly("after");
+        releaseLoader.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsExactly("before");
+        assertThat(singleFlight.executed()).isEqualTo(2);
+        assertThat(singleFlight.shared()).isZero();
+    }
+
+    @Test
+    @DisplayName("после завершения результат не хранится")
+    public void testNothingIsKeptAfterCompletion() {
+        assertThat(singleFlight.execute("key", () -> List.of("first"))).containsExactly("first");
+        assertThat(singleFlight.execute("key", () -> List.of("second"))).containsExactly("second");
+        assertThat(singleFlight.executed()).isEqualTo(2);
+    }
+
+    private List<String> blockingLoad(String value) {
+        loads.incrementAndGet();
+        loaderStarted.countDown();
+        try {
+            releaseLoader.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return List.of(value);
+    }
+
+    private List<Future<List<String>>> submitWaiters(String value) {
+        return IntStream.range(0, WAITERS)
+                .mapToObj(i -> executor.submit(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    return List.of(value);
+                })))
+                .toList();
+    }
+
+    private void awaitShared(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.shared() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
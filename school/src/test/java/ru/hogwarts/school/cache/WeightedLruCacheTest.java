@@ -0,0 +1,129 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("тест LRU-кэша, ограниченного по весу")
+public class WeightedLruCacheTest {
+
+    private final WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, String::length);
+
+    @Test
+    @DisplayName("вытесняем давно не использованные записи, пока вес не уложится в лимит")
+    public void testEvictsLeastRecentlyUsedByWeight() {
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a");
+        cache.put("c", "cccc");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("aaaa");
+        assertThat(cache.get("c")).isEqualTo("cccc");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(3, 1, 1, 2, 8, 10));
+    }
+
+    @Test
+    @DisplayName("одна тяжёлая запись вытесняет несколько лёгких")
+    public void testHeavyEntryEvictsSeveral() {
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.put("c", "ccc");
+        cache.put("d", "ddddddddd");
+
+        assertThat(cache.stats().size()).isEqualTo(1);
+        assertThat(cache.stats().weight()).isEqualTo(9);
+        assertThat(cache.stats().evictions()).isEqualTo(3);
+        assertThat(cache.get("d")).isEqualTo("ddddddddd");
+    }
+
+    @Test
+    @DisplayName("запись тяжелее лимита не кэшируется и не вытесняет остальные")
+    public void testValueHeavierThanMaxIsNotCached() {
+        cache.put("a", "aaaa");
+        cache.put("big", "x".repeat(11));
+
+        assertThat(cache.get("big")).isNull();
+        assertThat(cache.get("a")).isEqualTo("aaaa");
+        assertThat(cache.stats().evictions()).isZero();
+        assertThat(cache.stats().weight()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("замена значения пересчитывает вес")
+    public void testReplaceUpdatesWeight() {
+        cache.put("a", "aaaaaa");
+        cache.put("a", "aa");
+        cache.put("b", "bbbbbbbb");
+
+        assertThat(cache.stats().weight()).isEqualTo(10);
+        assertThat(cache.stats().evictions()).isZero();
+        assertThat(cache.get("a")).isEqualTo("aa");
+    }
+
+    @Test
+    @DisplayName("инвалидация освобождает вес")
+    public void testInvalidate() {
+        cache.put("a1", "aaa");
+        cache.put("a2", "aaa");
+        cache.put("b1", "bbb");
+
+        cache.invalidate("b1");
+        assertThat(cache.stats().weight()).isEqualTo(6);
+
+        cache.invalidateIf(key -> key.startsWith("a"));
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.stats().weight()).isZero();
+
+        cache.put("c", "cc");
+        cache.invalidateAll();
+        assertThat(cache.stats().weight()).isZero();
+    }
+
+    @Test
+    @DisplayName("загрузчик вызывается только при промахе, null не кэшируется")
+    public void testLoader() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", key -> {
+            loads.incrementAndGet();
+            return "aaa";
+        })).isEqualTo("aaa");
+        assertThat(cache.get("a", key -> {
+            loads.incrementAndGet();
+            return "other";
+        })).isEqualTo("aaa");
+        assertThat(cache.get("missing", key -> null)).isNull();
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("значение, загруженное до инвалидации, не кэшируется")
+    public void testLoadOverlappingInvalidationIsNotCached() {
+        cache.put("b", "bbb");
+
+        assertThat(cache.get("a", key -> {
+            // a writer changes the source and invalidates while the old value is being loaded
+            cache.invalidateIf(other -> other.equals("a"));
+            return "old";
+        })).isEqualTo("old");
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo("bbb");
+        assertThat(cache.get("a", key -> "new")).isEqualTo("new");
+        assertThat(cache.get("a")).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("лимит веса должен быть положительным")
+    public void testMaxWeightMustBePositive() {
+        assertThatThrownBy(() -> new WeightedLruCache<String, String>(0, String::length))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
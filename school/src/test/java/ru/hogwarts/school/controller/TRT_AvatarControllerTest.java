@@ -0,0 +1,346 @@
+package ru.hogwarts.school.controller;
+
+import net.datafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import ru.hogwarts.school.dto.AvatarImportStatus;
+import ru.hogwarts.school.dto.AvatarImportStatus.EntryError;
+import ru.hogwarts.school.dto.AvatarImportStatus.State;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+import ru.hogwarts.school.storage.ContentHash;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест импорта аватаров через TestRestTemplate")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TRT_AvatarControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private AvatarStorage avatarStorage;
+
+    private final Faker faker = new Faker();
+
+    private Student student1;
+
+    private Student student2;
+
+    @BeforeEach
+    public void beforeEach() {
+        student1 = studentRepository.save(new Student(faker.harryPotter().character(), faker.random().nextInt(11, 18)));
+        student2 = studentRepository.save(new Student(faker.harryPotter().character(), faker.random().nextInt(11, 18)));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    private String baseUrl(String uriStartsWithSlash) {
+        return "http://localhost:%d%s".formatted(port, uriStartsWithSlash);
+    }
+
+    @Test
+    @DisplayName("импортируем аватары из ZIP-архива")
+    public void testImportArchive() throws Exception {
+        byte[] archive = zip(Map.of(
+                student1.getId() + ".png", png(),
+                "nested/" + student2.getId() + ".png", png(),
+                "999999999.png", png(),
+                "readme.txt", "not an avatar".getBytes(),
+                "__MACOSX/._" + student1.getId() + ".png", new byte[]{1}));
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("archive", file("avatars.zip", archive));
+        ResponseEntity<AvatarImportStatus> responseEntity = postImport(parts);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(responseEntity.getHeaders().getLocation())
+                .hasPath("/avatar/import/" + responseEntity.getBody().id());
+
+        AvatarImportStatus status = awaitFinished(responseEntity.getBody().id());
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.total()).isEqualTo(4);
+        assertThat(status.succeeded()).isEqualTo(2);
+        assertThat(status.failed()).isEqualTo(2);
+        assertThat(status.errors()).extracting(EntryError::entry)
+                .containsExactlyInAnyOrder("999999999.png", "readme.txt");
+        assertThat(avatarRepository.findByStudentId(student1.getId()))
+                .map(Avatar::getMediaType)
+                .hasValue(MediaType.IMAGE_PNG_VALUE);
+        assertThat(avatarRepository.findByStudentId(student2.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("импортируем аватары отдельными файлами")
+    public void testImportFiles() throws Exception {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add(student1.getId().toString(), file("first.png", png()));
+        parts.add(student2.getId().toString(), file("second.png", png()));
+        parts.add("unknown", file("third.png", png()));
+        ResponseEntity<AvatarImportStatus> responseEntity = postImport(parts);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        AvatarImportStatus status = awaitFinished(responseEntity.getBody().id());
+        assertThat(status.state()).isEqualTo(State.COMPLETED);
+        assertThat(status.total()).isEqualTo(3);
+        assertThat(status.succeeded()).isEqualTo(2);
+        assertThat(status.errors()).singleElement()
+                .isEqualTo(new EntryError("third.png", "File name must be the student id"));
+        assertThat(avatarRepository.findByStudentId(student1.getId())).isPresent();
+        assertThat(avatarRepository.findByStudentId(student2.getId())).isPresent();
+    }
+
+    @Test
+    @DisplayName("импорт принимает тело больше общего лимита multipart, загрузка одного аватара — нет")
+    public void testImportLimitIsSeparateFromUploadLimit() throws Exception {
+        byte[] large = new byte[1536 * 1024];
+        new Random(42).nextBytes(large);
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("archive", file("avatars.zip", zip(Map.of(student1.getId() + ".png", large))));
+        ResponseEntity<AvatarImportStatus> responseEntity = postImport(parts);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        AvatarImportStatus status = awaitFinished(responseEntity.getBody().id());
+        assertThat(status.errors()).singleElement()
+                .isEqualTo(new EntryError(student1.getId() + ".png", "File is too big"));
+
+        MultiValueMap<String, Object> upload = new LinkedMultiValueMap<>();
+        upload.add("avatar", file("avatar.png", large));
+        ResponseEntity<String> uploadResponse = testRestTemplate.postForEntity(
+                baseUrl("/avatar/{id}/avatar"),
+                new HttpEntity<>(upload, multipartHeaders()),
+                String.class,
+                Map.of("id", student1.getId()));
+
+        assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(uploadResponse.getBody()).isEqualTo("File is too big");
+    }
+
+    @Test
+    @DisplayName("одинаковые аватары хранятся один раз, содержимое удаляется с последней ссылкой")
+    public void testSharedContentIsReleasedWithLastReference() throws Exception {
+        byte[] shared = png();
+        upload(student1, shared);
+        upload(student2, shared);
+
+        String sharedHash = avatarRepository.findByStudentId(student1.getId()).orElseThrow().getContentHash();
+        assertThat(avatarRepository.findByStudentId(student2.getId()).orElseThrow().getContentHash())
+                .isEqualTo(sharedHash);
+
+        upload(student1, png());
+        assertThat(avatarStorage.exists(sharedHash)).isTrue();
+
+        upload(student2, png());
+        assertThat(avatarStorage.exists(sharedHash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("параллельные загрузки и импорты одного студента оставляют одну запись и одно содержимое")
+    public void testConcurrentWritesOfOneStudent() throws Exception {
+        List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            contents.add(png());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(contents.size());
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < contents.size(); i++) {
+                byte[] content = contents.get(i);
+                writes.add(i % 2 == 0
+                        ? executor.submit(() -> upload(student1, content))
+                        : executor.submit(() -> {
+                            MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+                            parts.add(student1.getId().toString(), file("avatar.png", content));
+                            return awaitFinished(postImport(parts).getBody().id());
+                        }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Avatar> avatars = avatarRepository.findAll().stream()
+                .filter(avatar -> avatar.getStudent().getId().equals(student1.getId()))
+                .toList();
+        assertThat(avatars).hasSize(1);
+        String kept = avatars.get(0).getContentHash();
+        for (byte[] content : contents) {
+            MessageDigest digest = ContentHash.newDigest();
+            digest.update(content);
+            String hash = ContentHash.toHex(digest);
+            assertThat(avatarStorage.exists(hash)).as(hash).isEqualTo(hash.equals(kept));
+        }
+    }
+
+    @Test
+    @DisplayName("содержимое аватара неизвестного студента не остаётся в хранилище после импорта")
+    public void testImportReleasesContentOfFailedEntries() throws Exception {
+        byte[] orphan = png();
+        long unknownId = student2.getId() + 1000;
+
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("archive", file("avatars.zip", zip(Map.of(unknownId + ".png", orphan))));
+        AvatarImportStatus status = awaitFinished(postImport(parts).getBody().id());
+
+        assertThat(status.errors()).singleElement()
+                .isEqualTo(new EntryError(unknownId + ".png", "Student " + unknownId + " not found"));
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(orphan);
+        assertThat(avatarStorage.exists(ContentHash.toHex(digest))).isFalse();
+    }
+
+    @Test
+    @DisplayName("импорт с архивом и отдельными файлами сразу отклоняется")
+    public void testImportMixedPartsRejected() throws Exception {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add(student1.getId().toString(), file("first.png", png()));
+        parts.add("archive", file("avatars.zip", zip(Map.of(student2.getId() + ".png", png()))));
+
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                baseUrl("/avatar/import"),
+                new HttpEntity<>(parts, multipartHeaders()),
+                String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(avatarRepository.findByStudentId(student1.getId())).isEmpty();
+        assertThat(avatarRepository.findByStudentId(student2.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("получаем 404 для неизвестного импорта")
+    public void testImportStatusNotFound() {
+        ResponseEntity<AvatarImportStatus> responseEntity = testRestTemplate.getForEntity(
+                baseUrl("/avatar/import/{id}"),
+                AvatarImportStatus.class,
+                Map.of("id", UUID.randomUUID()));
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private void upload(Student student, byte[] content) {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("avatar", file("avatar.png", content));
+        ResponseEntity<String> responseEntity = testRestTemplate.postForEntity(
+                baseUrl("/avatar/{id}/avatar"),
+                new HttpEntity<>(parts, multipartHeaders()),
+                String.class,
+                Map.of("id", student.getId()));
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<AvatarImportStatus> postImport(MultiValueMap<String, Object> parts) {
+        return testRestTemplate.postForEntity(
+                baseUrl("/avatar/import"),
+                new HttpEntity<>(parts, multipartHeaders()),
+                AvatarImportStatus.class);
+    }
+
+    private AvatarImportStatus awaitFinished(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            AvatarImportStatus status = testRestTemplate.getForObject(
+                    baseUrl("/avatar/import/{id}"),
+                    AvatarImportStatus.class,
+                    Map.of("id", id));
+            if (status.state() != State.RUNNING || System.currentTimeMillis() > deadline) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private HttpHeaders multipartHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return headers;
+    }
+
+    private ByteArrayResource file(String name, byte[] content) {
+        return new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        };
+    }
+
+    private byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(faker.random().nextInt(0, 15), faker.random().nextInt(0, 15), faker.random().nextInt());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                // stored, so the archive is as large as its content
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                CRC32 crc = new CRC32();
+                crc.update(entry.getValue());
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(entry.getValue().length);
+                zipEntry.setCrc(crc.getValue());
+                zip.putNextEntry(zipEntry);
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
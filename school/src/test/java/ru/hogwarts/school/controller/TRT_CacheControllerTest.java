@@ -0,0 +1,115 @@
+package ru.hogwarts.school.controller;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import jakarta.persistence.EntityManagerFactory;
+import net.datafaker.Faker;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.cache.RegionStats;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.SecondLevelCacheService;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест статистики кэша второго уровня через TestRestTemplate")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TRT_CacheControllerTest {
+
+    private static final String STUDENT_REGION = "student";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Faker faker = new Faker();
+
+    @AfterEach
+    public void afterEach() {
+        studentRepository.deleteAll();
+    }
+
+    private String baseUrl(String uriStartsWithSlash) {
+        return "http://localhost:%d%s".formatted(port, uriStartsWithSlash);
+    }
+
+    @Test
+    @DisplayName("повторное чтение студента попадает в кэш и видно в статистике регионов")
+    public void testRegionStats() {
+        Student student = studentRepository.save(new Student(faker.harryPotter().character(), 12));
+        entityManagerFactory.getCache().evictAll();
+        RegionStats before = secondLevelCacheService.getRegionStats().get(STUDENT_REGION);
+
+        studentRepository.findById(student.getId());
+        studentRepository.findById(student.getId());
+
+        ResponseEntity<Map<String, RegionStats>> responseEntity = testRestTemplate.exchange(
+                baseUrl("/cache/regions"),
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                });
+        Map<String, RegionStats> regions = responseEntity.getBody();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(regions).containsKeys(STUDENT_REGION, "query-results");
+        RegionStats after = regions.get(STUDENT_REGION);
+        assertThat(after.misses() - before.misses()).isEqualTo(1);
+        assertThat(after.puts() - before.puts()).isEqualTo(1);
+        assertThat(after.hits() - before.hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("регионы кэша ограничены по размеру и времени жизни")
+    public void testRegionsAreBounded() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        CacheManager cacheManager = ((JCacheRegionFactory) sessionFactory.getServiceRegistry()
+                .requireService(RegionFactory.class)).getCacheManager();
+
+        assertThat(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).isNotEmpty();
+        for (String region : sessionFactory.getStatistics().getSecondLevelCacheRegionNames()) {
+            Policy<?, ?> policy = cacheManager.getCache(region)
+                    .unwrap(com.github.benmanes.caffeine.cache.Cache.class)
+                    .policy();
+            if (region.equals("default-update-timestamps-region")) {
+                assertThat(policy.eviction()).isEmpty();
+                continue;
+            }
+            assertThat(policy.eviction()).as(region).isPresent();
+            assertThat(policy.expireAfterWrite()).as(region).isPresent();
+        }
+
+        Policy<?, ?> students = cacheManager.getCache(STUDENT_REGION)
+                .unwrap(com.github.benmanes.caffeine.cache.Cache.class)
+                .policy();
+        assertThat(students.eviction().orElseThrow().getMaximum()).isEqualTo(10_000);
+        assertThat(students.expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(10));
+    }
+}
@@ -13,6 +13,9 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
@@ -40,6 +43,9 @@ public class TRT_FacultyControllerTest {
     @Autowired
     private FacultyRepository facultyRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private final Faker faker = new Faker();
 
     private Faculty faculty1;
@@ -64,7 +70,7 @@ public class TRT_FacultyControllerTest {
 
     private Faculty createFaculty() {
         Faculty faculty = new Faculty();
-        faculty.setName(faker.harryPotter().house());
+        faculty.setName(faker.harryPotter().house() + " " + faker.number().digits(6));
         faculty.setColor(faker.color().name());
         return facultyRepository.save(faculty);
     }
@@ -108,7 +114,7 @@ public class TRT_FacultyControllerTest {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(created).isNotNull();
         assertThat(created).usingRecursiveComparison()
-                .ignoringFields("id")
+                .ignoringFields("id", "studentList")
                 .isEqualTo(faculty);
         assertThat(created.getId()).isNotNull();
 
@@ -117,6 +123,7 @@ public class TRT_FacultyControllerTest {
         assertThat(fromDB).isPresent();
         assertThat(fromDB.get())
                 .usingRecursiveComparison()
+                .ignoringFields("studentList")
                 .isEqualTo(created);
     }
 
@@ -155,18 +162,17 @@ public class TRT_FacultyControllerTest {
     @DisplayName("получаем список факультетов по цвету или названию")
     public void testFindFaculties() {
         String name = faculty1.getName();
-        String color = faculty1.getColor();
-        Collection<Faculty> expected = List.of(faculty1);
+        Collection<FacultyDto> expected = List.of(FacultyDto.from(faculty1));
 
-        ResponseEntity<Collection<Faculty>> responseEntity = testRestTemplate.exchange(
-                baseUrl("/faculty?color={color}&name={name}"),
+        ResponseEntity<Collection<FacultyDto>> responseEntity = testRestTemplate.exchange(
+                baseUrl("/faculty?colorOrName={name}"),
                 HttpMethod.GET,
                 null,
                 new ParameterizedTypeReference<>() {
                 },
-                Map.of("color", color, "name", name)
+                Map.of("name", name)
         );
-        Collection<Faculty> actual = responseEntity.getBody();
+        Collection<FacultyDto> actual = responseEntity.getBody();
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(actual).usingRecursiveComparison()
@@ -178,21 +184,49 @@ public class TRT_FacultyControllerTest {
     @DisplayName("получаем список студентов по названию факультета")
     public void testFindByStudent() {
         String faculty = faculty1.getName();
-        Collection<Student> expected = faculty1.getStudentList();
+        Collection<StudentDto> expected = students.stream()
+                .filter(student -> student.getFaculty().getId().equals(faculty1.getId()))
+                .map(StudentDto::from)
+                .toList();
 
-        ResponseEntity<Collection<Student>> responseEntity = testRestTemplate.exchange(
-                baseUrl("/faculty/{faculty}"),
+        ResponseEntity<Collection<StudentDto>> responseEntity = testRestTemplate.exchange(
+                baseUrl("/faculty/{faculty}/students"),
                 HttpMethod.GET,
                 null,
                 new ParameterizedTypeReference<>() {
                 },
                 Map.of("faculty", faculty)
         );
-        Collection<Student> actual = responseEntity.getBody();
+        Collection<StudentDto> actual = responseEntity.getBody();
 
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(actual).usingRecursiveComparison()
                 .ignoringCollectionOrder()
                 .isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("после перевода студента кэшированные списки обоих факультетов обновляются")
+    public void testMovedStudentLeavesCachedStudentLists() {
+        Student moved = students.get(0);
+        assertThat(studentIdsOf(faculty1)).contains(moved.getId());
+        assertThat(studentIdsOf(faculty2)).doesNotContain(moved.getId());
+
+        moved.setFaculty(faculty2);
+        studentRepository.save(moved);
+
+        assertThat(studentIdsOf(faculty1)).hasSize(4).doesNotContain(moved.getId());
+        assertThat(studentIdsOf(faculty2)).hasSize(6).contains(moved.getId());
+    }
+
+    /**
+     * Reads the faculty's student collection through the persistence context, so it is served from the
+     * collection cache once cached.
+     */
+    private List<Long> studentIdsOf(Faculty faculty) {
+        return transactionTemplate.execute(status -> facultyRepository.findById(faculty.getId()).orElseThrow()
+                .getStudentList().stream()
+                .map(Student::getId)
+                .toList());
+    }
+}
@@ -0,0 +1,114 @@
+package ru.hogwarts.school.controller;
+
+import net.datafaker.Faker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.hogwarts.school.diagnostics.QueryBudget;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("бюджет запросов к базе через TestRestTemplate")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(TRT_QueryBudgetTest.NPlusOneController.class)
+public class TRT_QueryBudgetTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private final Faker faker = new Faker();
+
+    private Faculty faculty;
+
+    @RestController
+    static class NPlusOneController {
+
+        private final FacultyRepository facultyRepository;
+
+        NPlusOneController(FacultyRepository facultyRepository) {
+            this.facultyRepository = facultyRepository;
+        }
+
+        @GetMapping("/test/faculty-sizes")
+        @QueryBudget(2)
+        public ResponseEntity<Integer> facultySizes() {
+            int students = 0;
+            for (Faculty faculty : facultyRepository.findAll()) {
+                students += facultyRepository.findWithStudentsByNameIgnoreCase(faculty.getName())
+                        .map(found -> found.getStudentList().size())
+                        .orElse(0);
+            }
+            return ResponseEntity.ok(students);
+        }
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        for (int i = 0; i < 3; i++) {
+            Faculty created = new Faculty();
+            created.setName(faker.harryPotter().house() + " " + faker.number().digits(6));
+            created.setColor(faker.color().name());
+            faculty = facultyRepository.save(created);
+
+            Student student = new Student(faker.harryPotter().character(), faker.random().nextInt(11, 18));
+            student.setFaculty(faculty);
+            studentRepository.save(student);
+        }
+    }
+
+    @AfterEach
+    public void afterEach() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    private String baseUrl(String uriStartsWithSlash) {
+        return "http://localhost:%d%s".formatted(port, uriStartsWithSlash);
+    }
+
+    @Test
+    @DisplayName("запрос по факультету на каждый факультет превышает бюджет и падает")
+    public void testBudgetExceeded() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                baseUrl("/test/faculty-sizes"),
+                String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    @DisplayName("студенты факультета укладываются в бюджет")
+    public void testWithinBudget() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                baseUrl("/faculty/{faculty}/students"),
+                String.class,
+                Map.of("faculty", faculty.getName()));
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
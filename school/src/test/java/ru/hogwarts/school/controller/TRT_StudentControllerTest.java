@@ -11,9 +11,12 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.StudentImportResult;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
@@ -74,7 +77,7 @@ public class TRT_StudentControllerTest {
                                 studentRepository.saveAll(Stream.generate(() -> {
                                             Student student = new Student();
                                             student.setFaculty(faculty);
-                                            student.setName(faker.harryPotter().character());
+                                            student.setName(faker.harryPotter().character() + " " + faker.number().digits(6));
                                             student.setAge(faker.random().nextInt(11, 18));
                                             return student;
                                         })
@@ -119,8 +122,8 @@ public class TRT_StudentControllerTest {
     @Test
     @DisplayName("получаем студентов по позрасту min max")
     public void testFindByAgeBetween() {
-        int min = faker.random().nextInt(11, 18);
-        int max = faker.random().nextInt(min, 18);
+        int min = faker.random().nextInt(11, 17);
+        int max = faker.random().nextInt(min + 1, 18);
         Collection<Student> expected = students.stream()
                 .filter(s -> s.getAge() >= min && s.getAge() <= max)
                 .toList();
@@ -214,4 +217,120 @@ public class TRT_StudentControllerTest {
         assertThat(actual).usingRecursiveComparison()
                 .isEqualTo(student.getFaculty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("импортируем студентов из CSV несколькими пачками")
+    public void testImportStudentsCsv() {
+        Long facultyId = students.get(0).getFaculty().getId();
+        String suffix = faker.number().digits(6);
+        long before = studentRepository.count();
+        String csv = """
+                name,age,facultyId
+                Luna %1$s,14,%2$d
+                Neville %1$s , 15 ,
+                Ginny %1$s,13,%2$d
+                ,12,%2$d
+                Cho %1$s,16,-1
+                """.formatted(suffix, facultyId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        ResponseEntity<StudentImportResult> responseEntity = testRestTemplate.postForEntity(
+                baseUrl("/student/import"),
+                new HttpEntity<>(csv, headers),
+                StudentImportResult.class);
+        StudentImportResult result = responseEntity.getBody();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result).isNotNull();
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(2);
+        assertThat(result.completed()).isTrue();
+        assertThat(result.errors()).containsExactly(
+                "Row 4: name is required",
+                "Row 5: faculty -1 does not exist");
+        assertThat(studentRepository.count()).isEqualTo(before + 3);
+
+        Student neville = studentRepository.findStudentByNameIgnoreCase("Neville " + suffix);
+        assertThat(neville.getAge()).isEqualTo(15);
+        assertThat(neville.getFaculty()).isNull();
+        assertThat(studentRepository.findWithFacultyById(
+                studentRepository.findStudentByNameIgnoreCase("Luna " + suffix).getId()))
+                .hasValueSatisfying(luna -> assertThat(luna.getFaculty().getId()).isEqualTo(facultyId));
+    }
+
+    @Test
+    @DisplayName("импорт NDJSON останавливается на битой строке и сохраняет прочитанное")
+    public void testImportStudentsNdjsonMalformed() {
+        String suffix = faker.number().digits(6);
+        long before = studentRepository.count();
+        String ndjson = """
+                {"name":"Dean %1$s","age":15}
+                {"name":"Seamus %1$s","age":15,"unknown":true}
+                {"name":"Lavender %1$s","age":
+                {"name":"Parvati %1$s","age":15}
+                """.formatted(suffix);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        ResponseEntity<StudentImportResult> responseEntity = testRestTemplate.postForEntity(
+                baseUrl("/student/import"),
+                new HttpEntity<>(ndjson, headers),
+                StudentImportResult.class);
+        StudentImportResult result = responseEntity.getBody();
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(result).isNotNull();
+        assertThat(result.completed()).isFalse();
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).singleElement().asString().startsWith("Row 3 is malformed, import stopped");
+        assertThat(studentRepository.count()).isEqualTo(before + 2);
+        assertThat(studentRepository.findStudentByNameIgnoreCase("Parvati " + suffix)).isNull();
+    }
+
+    @Test
+    @DisplayName("выгружаем всех студентов в NDJSON по строке на студента")
+    public void testExportStudentsNdjson() {
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                baseUrl("/student/export?format=ndjson"),
+                String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(responseEntity.getBody()).isEqualTo(exportedStudents().stream()
+                .map(student -> "{\"id\":%d,\"name\":\"%s\",\"age\":%d,\"facultyId\":%d}\n".formatted(
+                        student.getId(), student.getName(), student.getAge(), student.getFaculty().getId()))
+                .collect(Collectors.joining()));
+    }
+
+    @Test
+    @DisplayName("выгружаем всех студентов в CSV с заголовком и экранированием")
+    public void testExportStudentsCsv() {
+        Student student = new Student("Weasley, Ronald \"Ron\"", 17);
+        student.setFaculty(students.get(0).getFaculty());
+        studentRepository.save(student);
+
+        ResponseEntity<String> responseEntity = testRestTemplate.getForEntity(
+                baseUrl("/student/export?format=csv"),
+                String.class);
+
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(responseEntity.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("text/csv"));
+        assertThat(responseEntity.getBody()).isEqualTo("id,name,age,facultyId\n" + exportedStudents().stream()
+                .map(exported -> "%d,%s,%d,%d\n".formatted(exported.getId(), quoted(exported.getName()),
+                        exported.getAge(), exported.getFaculty().getId()))
+                .collect(Collectors.joining()));
+        assertThat(responseEntity.getBody()).contains(",\"Weasley, Ronald \"\"Ron\"\"\",17,");
+    }
+
+    private List<Student> exportedStudents() {
+        return studentRepository.findAll().stream()
+                .sorted(Comparator.comparing(Student::getId))
+                .toList();
+    }
+
+    // Jackson quotes any value with a space, which every seeded name has
+    private static String quoted(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,79 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.QueryExecutor;
+import ru.hogwarts.school.service.QueryRejectedException;
+import ru.hogwarts.school.service.StudentService;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AsyncQueryController.class)
+@DisplayName("тест асинхронных запросов через MVC")
+public class WMT_AsyncQueryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SchoolMetrics schoolMetrics;
+
+    @MockBean
+    private StudentService studentService;
+
+    @MockBean
+    private FacultyService facultyService;
+
+    @SpyBean
+    private QueryExecutor queryExecutor;
+
+    @Test
+    @DisplayName("получаем студента по id асинхронно")
+    public void testGetStudentInfo() throws Exception {
+        Faculty faculty = new Faculty("Гриффиндор", "красный");
+        faculty.setId(1L);
+        Student student = new Student();
+        student.setId(7L);
+        student.setName("Гарри Поттер");
+        student.setAge(11);
+        student.setFaculty(faculty);
+        when(studentService.findStudent(7L)).thenReturn(student);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/async/student/id/7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.name").value("Гарри Поттер"))
+                .andExpect(jsonPath("$.faculty.id").value(1));
+    }
+
+    @Test
+    @DisplayName("отвечаем 503 с Retry-After, когда очередь запросов заполнена")
+    public void testRejectedWhenSaturated() throws Exception {
+        doThrow(new QueryRejectedException(Duration.ofSeconds(2))).when(queryExecutor).submit(any());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/async/student/getCountAllByStudents"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+}
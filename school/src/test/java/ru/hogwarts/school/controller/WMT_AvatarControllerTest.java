@@ -0,0 +1,174 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarJdbcRepository;
+import ru.hogwarts.school.repository.AvatarJdbcRepository.AvatarRow;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.service.AvatarImportService;
+import ru.hogwarts.school.service.AvatarPreviewService;
+import ru.hogwarts.school.service.AvatarService;
+import ru.hogwarts.school.storage.AvatarContentGuard;
+import ru.hogwarts.school.storage.AvatarStorage;
+import ru.hogwarts.school.storage.StoredContent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AvatarController.class)
+@DisplayName("тест контроллера аватаров через MockMvc")
+public class WMT_AvatarControllerTest {
+
+    private static final long STUDENT_ID = 1L;
+    private static final String HASH = "a".repeat(64);
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SchoolMetrics schoolMetrics;
+
+    @SpyBean
+    private AvatarService avatarService;
+
+    @MockBean
+    private AvatarRepository avatarRepository;
+
+    @MockBean
+    private AvatarJdbcRepository avatarJdbcRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private AvatarStorage avatarStorage;
+
+    @MockBean
+    private AvatarPreviewService avatarPreviewService;
+
+    @MockBean
+    private AvatarImportService avatarImportService;
+
+    @SpyBean
+    private AvatarContentGuard avatarContentGuard;
+
+    private Avatar avatar;
+
+    @BeforeEach
+    public void beforeEach() {
+        avatar = new Avatar(HASH, "image/png", CONTENT.length, new Student("Harry", 17));
+        avatar.setUpdatedAt(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        when(avatarRepository.findByStudentId(STUDENT_ID)).thenReturn(Optional.of(avatar));
+        when(avatarStorage.load(HASH)).thenReturn(Optional.of(new ByteArrayResource(CONTENT)));
+    }
+
+    @Test
+    @DisplayName("загружаем аватар")
+    public void testUploadAvatar() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("avatar", "avatar.png", "image/png", CONTENT);
+        when(avatarJdbcRepository.lockStudents(List.of(STUDENT_ID))).thenReturn(Set.of(STUDENT_ID));
+        when(avatarStorage.store(any(), anyLong())).thenReturn(new StoredContent(HASH, CONTENT.length));
+        when(avatarStorage.exists(HASH)).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/avatar/" + STUDENT_ID + "/avatar").file(file))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<List<AvatarRow>> rows = ArgumentCaptor.captor();
+        verify(avatarJdbcRepository).upsert(rows.capture());
+        assertThat(rows.getValue()).singleElement().satisfies(row -> {
+            assertThat(row.studentId()).isEqualTo(STUDENT_ID);
+            assertThat(row.contentHash()).isEqualTo(HASH);
+            assertThat(row.fileSize()).isEqualTo(CONTENT.length);
+        });
+    }
+
+    @Test
+    @DisplayName("не загружаем слишком большой аватар")
+    public void testUploadAvatarTooBig() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("avatar", "avatar.png", "image/png", new byte[1024 * 301]);
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/avatar/" + STUDENT_ID + "/avatar").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("File is too big"));
+
+        verify(avatarStorage, never()).store(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("получаем аватар целиком с ETag")
+    public void testDownloadAvatar() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/" + STUDENT_ID + "/avatar"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    @DisplayName("получаем часть аватара по заголовку Range")
+    public void testDownloadAvatarRange() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/" + STUDENT_ID + "/avatar")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + CONTENT.length))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    @DisplayName("получаем 416 для диапазона за пределами файла")
+    public void testDownloadAvatarRangeNotSatisfiable() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/" + STUDENT_ID + "/avatar")
+                        .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length));
+    }
+
+    @Test
+    @DisplayName("получаем 304 при совпадении If-None-Match")
+    public void testDownloadAvatarNotModified() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/" + STUDENT_ID + "/avatar")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("получаем 304 при If-Modified-Since не раньше даты загрузки")
+    public void testDownloadAvatarNotModifiedSince() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(avatar.getUpdatedAt().toEpochMilli());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/avatar/" + STUDENT_ID + "/avatar")
+                        .headers(headers))
+                .andExpect(status().isNotModified());
+    }
+}
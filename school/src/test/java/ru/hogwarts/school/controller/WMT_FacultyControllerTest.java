@@ -12,6 +12,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.metrics.SchoolMetrics;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.AvatarRepository;
@@ -21,6 +25,7 @@ import ru.hogwarts.school.service.FacultyService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.InstanceOfAssertFactories.predicate;
@@ -35,6 +40,9 @@ public class WMT_FacultyControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private SchoolMetrics schoolMetrics;
+
     @SpyBean
     private FacultyService facultyService;
 
@@ -85,9 +93,8 @@ public class WMT_FacultyControllerTest {
         final Long id = faculty.getId();
         final String name = faculty.getName();
         final String color = faculty.getColor();
-        final List<Student> studentList = faculty.getStudentList();
 
-        when(facultyRepository.getReferenceById(any())).thenReturn(faculty);
+        when(facultyRepository.findById(id)).thenReturn(Optional.of(faculty));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/faculty/" + id)
@@ -98,7 +105,23 @@ public class WMT_FacultyControllerTest {
                 .andExpect(jsonPath("$.id").value(id))
                 .andExpect(jsonPath("$.name").value(name))
                 .andExpect(jsonPath("$.color").value(color))
-                .andExpect(jsonPath("$.studentList").value(studentList));
+                .andExpect(jsonPath("$.studentList").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("получаем несколько факультетов по списку id")
+    public void testGetFacultiesInfo() throws Exception {
+        Faculty faculty = createFaculty();
+
+        when(facultyRepository.findAllById(any())).thenReturn(List.of(faculty));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/faculty/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + faculty.getId() + ", " + (faculty.getId() + 1) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(faculty.getId()))
+                .andExpect(jsonPath("$.items[0].name").value(faculty.getName()))
+                .andExpect(jsonPath("$.missing[0]").value(faculty.getId() + 1));
     }
 
     @Test
@@ -115,6 +138,7 @@ public class WMT_FacultyControllerTest {
                 .andExpect(result -> {
                     Faculty response = objectMapper.readValue(result.getResponse().getContentAsString(StandardCharsets.UTF_8), Faculty.class);
                     assertThat(response).usingRecursiveComparison()
+                            .ignoringFields("studentList")
                             .isEqualTo(faculty);
                     assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value());
                 });
@@ -124,7 +148,7 @@ public class WMT_FacultyControllerTest {
     @DisplayName("удаляем факультет")
     public void testDeleteFaculty() throws Exception {
         Faculty faculty = createFaculty();
-        when(facultyRepository.getReferenceById(any())).thenReturn(faculty);
+        when(facultyRepository.findById(any())).thenReturn(Optional.of(faculty));
         mockMvc.perform(MockMvcRequestBuilders.delete("/faculty/" + faculty.getId()))
                 .andExpect(s -> assertThat(s.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value()));
     }
@@ -137,7 +161,7 @@ public class WMT_FacultyControllerTest {
         Collection<Faculty> actual = new ArrayList<>();
         actual.add(faculty);
 
-        when(facultyRepository.findFacultiesByColorIgnoreCaseOrNameIgnoreCase(faculty.getColor(), faculty.getName()))
+        when(facultyRepository.findFacultiesByColorIgnoreCaseOrNameIgnoreCase(faculty.getName(), faculty.getName()))
                 .thenReturn(actual);
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -145,7 +169,7 @@ public class WMT_FacultyControllerTest {
                         .param("colorOrName", faculty.getName())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(content().json(objectMapper.writeValueAsString(actual)));
+                .andExpect(content().json(objectMapper.writeValueAsString(actual.stream().map(FacultyDto::from).toList())));
     }
 
     @Test
@@ -155,8 +179,8 @@ public class WMT_FacultyControllerTest {
 
         Collection<Student> actual = new ArrayList<>(faculty.getStudentList());
 
-        when(facultyRepository.findFacultyByNameIgnoreCase(faculty.getName()))
-                .thenReturn(faculty);
+        when(facultyRepository.findWithStudentsByNameIgnoreCase(faculty.getName()))
+                .thenReturn(Optional.of(faculty));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/faculty/" + faculty.getName() + "/students")
@@ -167,6 +191,39 @@ public class WMT_FacultyControllerTest {
         ;
     }
 
+    @Test
+    @DisplayName("список студентов, прочитанный во время изменения студента, не остаётся в кэше")
+    public void testFindByStudentLoadedDuringChange() throws Exception {
+        Faculty faculty = createFaculty();
+        Faculty changed = createFaculty();
+        changed.setId(faculty.getId());
+        changed.setName(faculty.getName());
+        changed.getStudentList().add(new Student("Ron", 11));
+        AtomicReference<Thread> writer = new AtomicReference<>();
+
+        when(facultyRepository.findById(faculty.getId())).thenReturn(Optional.of(faculty));
+        when(facultyRepository.findWithStudentsByNameIgnoreCase(faculty.getName())).thenAnswer(invocation -> {
+            if (writer.get() != null) {
+                return Optional.of(changed);
+            }
+            // a student joins the faculty while its old student list is being read
+            writer.set(new Thread(() -> facultyService.onStudentChanged(
+                    new StudentChangedEvent(2L, null, new StudentState("Ron", 11, faculty.getId())))));
+            writer.get().start();
+            Thread.sleep(200);
+            return Optional.of(faculty);
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/faculty/" + faculty.getName() + "/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        writer.get().join();
+        mockMvc.perform(MockMvcRequestBuilders.get("/faculty/" + faculty.getName() + "/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Ron"));
+    }
+
     private Faculty createFaculty() {
         final Long id = random.nextLong();
         final String name = random.toString();
@@ -0,0 +1,104 @@
+package ru.hogwarts.school.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.NameSearchService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = SearchController.class, properties = "school.search.enabled=true")
+@DisplayName("поиск студентов и факультетов по имени через MVC")
+public class WMT_SearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudentRepository studentRepository;
+
+    @MockBean
+    private FacultyRepository facultyRepository;
+
+    @SpyBean
+    private NameSearchService nameSearchService;
+
+    @BeforeEach
+    public void beforeEach() {
+        Faculty gryffindor = new Faculty("Gryffindor", "red");
+        gryffindor.setId(1L);
+        Faculty hufflepuff = new Faculty("Hufflepuff", "yellow");
+        hufflepuff.setId(2L);
+
+        when(studentRepository.findPageAfter(eq(0L), any())).thenReturn(List.of(
+                new StudentInfo(1L, "Harry Potter", 11, 1L),
+                new StudentInfo(2L, "Hermione Granger", 11, 1L),
+                new StudentInfo(3L, "Ron Weasley", 11, 1L)));
+        when(facultyRepository.findAll()).thenReturn(List.of(gryffindor, hufflepuff));
+        nameSearchService.rebuild();
+    }
+
+    @Test
+    @DisplayName("находим по началу имени и по началу слова, начало имени выше")
+    public void testSearchByPrefix() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/search").param("q", "h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].match").value("PREFIX"))
+                .andExpect(jsonPath("$[0].name").value("Hufflepuff"))
+                .andExpect(jsonPath("$[0].type").value("faculty"))
+                .andExpect(jsonPath("$.length()").value(3));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/search")
+                        .param("q", "wea")
+                        .param("type", "student"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[0].match").value("WORD_PREFIX"));
+    }
+
+    @Test
+    @DisplayName("находим по подстроке и с опечаткой")
+    public void testSearchBySubstringAndTypo() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/search").param("q", "otte"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Harry Potter"))
+                .andExpect(jsonPath("$[0].match").value("SUBSTRING"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/search").param("q", "gryfindor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Gryffindor"))
+                .andExpect(jsonPath("$[0].match").value("FUZZY"))
+                .andExpect(jsonPath("$[0].distance").value(1));
+    }
+
+    @Test
+    @DisplayName("индекс обновляется при изменении студента")
+    public void testIndexFollowsStudentChanges() throws Exception {
+        nameSearchService.onStudentChanged(new StudentChangedEvent(4L, null, new StudentState("Neville Longbottom", 11, 1L)));
+        nameSearchService.onStudentChanged(new StudentChangedEvent(3L, new StudentState("Ron Weasley", 11, 1L), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/search").param("q", "nev"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(4));
+        mockMvc.perform(MockMvcRequestBuilders.get("/search").param("q", "ron"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -0,0 +1,471 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.hogwarts.school.dto.CursorPage;
+import ru.hogwarts.school.dto.FacultyDto;
+import ru.hogwarts.school.dto.StudentDto;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StudentAgeIndexService;
+import ru.hogwarts.school.service.StudentBatchProcessor;
+import ru.hogwarts.school.service.StudentExportService;
+import ru.hogwarts.school.service.StudentImportService;
+import ru.hogwarts.school.service.StudentService;
+import ru.hogwarts.school.service.StudentStatisticsService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StudentController.class)
+@DisplayName("контроллер студентов через MockMvc")
+public class WMT_StudentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudentRepository studentRepository;
+
+    @MockBean
+    private AvatarRepository avatarRepository;
+
+    @MockBean
+    private StudentStatisticsService statisticsService;
+
+    @MockBean
+    private StudentAgeIndexService ageIndex;
+
+    @MockBean
+    private SchoolMetrics schoolMetrics;
+
+    @MockBean
+    private StudentImportService studentImportService;
+
+    @MockBean
+    private StudentExportService studentExportService;
+
+    @SpyBean
+    private StudentBatchProcessor batchProcessor;
+
+    @SpyBean
+    private StudentService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Random random = new Random();
+
+    @Test
+    @DisplayName("получаем студентов по id")
+    public void testGetFacultyInfo() throws Exception {
+        Student student = createStudent();
+
+        final Long id = student.getId();
+        final String name = student.getName();
+        final int age = student.getAge();
+
+        when(studentRepository.findWithFacultyById(id)).thenReturn(Optional.of(student));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/id/" + id)
+                        .content(id.toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.name").value(name))
+                .andExpect(jsonPath("$.age").value(age));
+    }
+
+    @Test
+    @DisplayName("повторно получаем студента по id из кэша")
+    public void testFindStudentCached() throws Exception {
+        Student student = createStudent();
+        when(studentRepository.findWithFacultyById(student.getId())).thenReturn(Optional.of(student));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders
+                            .get("/student/id/" + student.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value(student.getName()));
+        }
+        verify(studentRepository, times(1)).findWithFacultyById(student.getId());
+    }
+
+    @Test
+    @DisplayName("студент, прочитанный во время изменения его факультета, перечитывается")
+    public void testFindStudentLoadedDuringFacultyChange() throws Exception {
+        Student student = createStudent();
+        student.getFaculty().setId(random.nextLong());
+        student.getFaculty().setName("Gryffindor");
+        Student renamed = createStudent();
+        renamed.setId(student.getId());
+        renamed.setFaculty(new Faculty("Lion House", "red"));
+        renamed.getFaculty().setId(student.getFaculty().getId());
+        List<Student> loads = new ArrayList<>(List.of(student, renamed));
+
+        when(studentRepository.findWithFacultyById(student.getId())).thenAnswer(invocation -> {
+            Student loaded = loads.remove(0);
+            if (loaded == student) {
+                // the faculty is renamed while the student is being read
+                service.onFacultyChanged(new FacultyChangedEvent(student.getFaculty().getId()));
+            }
+            return Optional.of(loaded);
+        });
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders
+                            .get("/student/id/" + student.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.faculty.name").value("Lion House"));
+        }
+        verify(studentRepository, times(2)).findWithFacultyById(student.getId());
+    }
+
+    @Test
+    @DisplayName("получаем нескольких студентов по списку id в порядке запроса")
+    public void testGetStudentsInfo() throws Exception {
+        Student first = createStudent();
+        first.setId(10L);
+        Student second = createStudent();
+        second.setId(20L);
+
+        when(studentRepository.findWithFacultyByIdIn(any())).thenReturn(List.of(first, second));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/student/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[20, 30, 10, 20]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(20))
+                .andExpect(jsonPath("$.items[1].id").value(10))
+                .andExpect(jsonPath("$.missing[0]").value(30));
+        verify(studentRepository, times(1)).findWithFacultyByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("получаем студентов по диапазону возраста из индекса без запроса по возрасту")
+    public void testFindByAgeBetweenIndexed() throws Exception {
+        Student student = createStudent();
+        student.setId(10L);
+        student.setAge(13);
+
+        when(ageIndex.isReady()).thenReturn(true);
+        when(ageIndex.idsBetween(13, 14)).thenReturn(new long[]{10L});
+        when(ageIndex.countBetween(13, 14)).thenReturn(1L);
+        when(studentRepository.findWithFacultyByIdIn(any())).thenReturn(List.of(student));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/student")
+                        .param("min", "13")
+                        .param("max", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[0].age").value(13));
+        mockMvc.perform(MockMvcRequestBuilders.get("/student/count-by-age")
+                        .param("min", "13")
+                        .param("max", "14"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+        verify(studentRepository, times(0)).findByAgeBetween(13, 14);
+        verify(studentRepository, times(0)).countByAgeBetween(13, 14);
+        // range results do not displace the students cached by id
+        assertThat(service.getCacheStats().size()).isZero();
+    }
+
+    @Test
+    @DisplayName("создаём студента")
+    public void testCreateStudent() throws Exception {
+        Student student = createStudent();
+
+        when(studentRepository.save(any())).thenReturn(student);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(objectMapper.writeValueAsString(student)))
+                .andExpect(result -> {
+                    Student response = objectMapper.readValue(result.getResponse().getContentAsString(StandardCharsets.UTF_8), Student.class);
+                    assertThat(response).usingRecursiveComparison()
+                            .isEqualTo(student);
+                    assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value());
+                });
+    }
+
+    @Test
+    @DisplayName("обновляем студента")
+    public void testEditStudent() throws Exception {
+        long id = 1;
+        String newName = "Petr";
+        int newAge = 15;
+
+        Student oldStudent = new Student("Ivan", 14);
+        oldStudent.setId(id);
+
+        Student newStudent = new Student(newName, newAge);
+        newStudent.setId(id);
+
+        when(studentRepository.getReferenceById(any())).thenReturn(oldStudent);
+        when(studentRepository.save(any())).thenReturn(newStudent);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(objectMapper.writeValueAsString(newStudent)))
+                .andExpect(result -> {
+                    Student response = objectMapper.readValue(result.getResponse().getContentAsString(StandardCharsets.UTF_8), Student.class);
+                    assertThat(response).usingRecursiveComparison()
+                            .isEqualTo(newStudent);
+                    assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value());
+                });
+    }
+
+    @Test
+    @DisplayName("удаляем студента")
+    public void testDeleteStudent() throws Exception {
+        Student student = createStudent();
+        when(studentRepository.getReferenceById(any())).thenReturn(student);
+        mockMvc.perform(MockMvcRequestBuilders.delete("/student/" + student.getId()))
+                .andExpect(s -> assertThat(s.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value()));
+    }
+
+    @Test
+    @DisplayName("получаем коллекцию студентов по возрасту")
+    public void testFindByAge() throws Exception {
+        Student student = createStudent();
+        Integer ageStudent = student.getAge();
+
+        Collection<Student> actual = new ArrayList<>();
+        actual.add(student);
+
+        when(studentRepository.findStudentsByAge(student.getAge())).thenReturn(actual);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student")
+                        .param("age", ageStudent.toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(actual.stream().map(StudentDto::from).toList())))
+        ;
+    }
+
+    @Test
+    @DisplayName("получаем коллекцию студентов по минимальному и максимальному возрасту")
+    public void testFindByAgeBetween() throws Exception {
+        Integer min = 12;
+        Integer max = 18;
+        Student student = createStudent();
+
+        Collection<Student> actual = new ArrayList<>();
+        actual.add(student);
+
+        when(studentRepository.findByAgeBetween(min, max)).thenReturn(actual);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student")
+                        .param("min", String.valueOf(min))
+                        .param("max", String.valueOf(max))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(actual.stream().map(StudentDto::from).toList())));
+    }
+
+    @Test
+    @DisplayName("получаем факультет по имени студента")
+    public void testFindByFaculty() throws Exception {
+        Student student = createStudent();
+        Faculty faculty = student.getFaculty();
+
+        when(studentRepository.findStudentByNameIgnoreCase(student.getName()))
+                .thenReturn(student);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/" + student.getName())
+                        .content(student.getName())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(FacultyDto.from(faculty))));
+    }
+
+    @Test
+    @DisplayName("получаем страницу студентов по курсору")
+    public void testGetStudentPage() throws Exception {
+        List<StudentInfo> fetched = List.of(
+                new StudentInfo(11L, "Harry", 17, 1L),
+                new StudentInfo(12L, "Ron", 17, 1L),
+                new StudentInfo(13L, "Hermione", 18, 1L));
+        when(studentRepository.findPageAfter(eq(10L), any())).thenReturn(fetched);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/page")
+                        .param("cursor", CursorPage.encodeCursor(10L))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].name").value("Ron"))
+                .andExpect(jsonPath("$.nextCursor").value(CursorPage.encodeCursor(12L)));
+    }
+
+    @Test
+    @DisplayName("не принимаем некорректный курсор")
+    public void testGetStudentPageInvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/page")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("ищем студентов по началу имени без учёта регистра")
+    public void testFindByNamePrefixIgnoreCase() throws Exception {
+        List<StudentInfo> found = List.of(new StudentInfo(1L, "Harry", 17, 1L));
+        when(studentRepository.findByNamePrefixIgnoreCase(eq("ha!_%"), any())).thenReturn(found);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/name-prefix")
+                        .param("prefix", "HA_")
+                        .param("ignoreCase", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Harry"));
+    }
+
+    @Test
+    @DisplayName("ищем студентов по началу имени с учётом регистра")
+    public void testFindByNamePrefix() throws Exception {
+        List<StudentInfo> found = List.of(new StudentInfo(1L, "Harry", 17, 1L));
+        when(studentRepository.findByNamePrefix(eq("Ha"), eq("Hb"), eq("Ha%"), any())).thenReturn(found);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/name-prefix")
+                        .param("prefix", "Ha"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Harry"));
+    }
+
+    @Test
+    @DisplayName("получаем статистику студентов из памяти")
+    public void testGetStatistics() throws Exception {
+        StudentStatistics statistics = new StudentStatistics(3, 51, Map.of(1L, 2L), 1, Map.of(17, 3L));
+        when(statisticsService.getStatistics()).thenReturn(statistics);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/getAvgAgeByAllStudents"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("17.0"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.withoutFaculty").value(1))
+                .andExpect(jsonPath("$.countByFaculty['1']").value(2));
+    }
+
+    @Test
+    @DisplayName("импортируем студентов из CSV")
+    public void testImportStudents() throws Exception {
+        StudentImportResult result = new StudentImportResult(2, 1, true, List.of("Row 3: name is required"));
+        when(studentImportService.importStudents(any(), argThat(StudentImportService.TEXT_CSV::isCompatibleWith))).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/student/import")
+                        .contentType("text/csv")
+                        .content("name,age,facultyId\nHarry,17,1\nRon,17,1\n,17,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
+    @Test
+    @DisplayName("прерванный импорт студентов возвращает 400")
+    public void testImportStudentsMalformed() throws Exception {
+        StudentImportResult result = new StudentImportResult(0, 0, false, List.of("Row 1 is malformed, import stopped"));
+        when(studentImportService.importStudents(any(), argThat(MediaType.APPLICATION_NDJSON::isCompatibleWith))).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/student/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.completed").value(false));
+    }
+
+    @Test
+    @DisplayName("выгружаем студентов в CSV потоком")
+    public void testExportStudentsCsv() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/export")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.csv\""))
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    @DisplayName("не выгружаем студентов в неизвестном формате")
+    public void testExportStudentsUnknownFormat() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("обрабатываем имена студентов параллельно с сохранением порядка")
+    public void testPrintSynchronizedStudentName() throws Exception {
+        List<StudentInfo> students = List.of(
+                new StudentInfo(1L, "Harry", 17, 1L),
+                new StudentInfo(2L, "Ron", 17, 1L),
+                new StudentInfo(3L, "Hermione", 17, 1L));
+        when(studentRepository.findPageAfter(eq(0L), any())).thenReturn(students);
+        when(studentRepository.findPageAfter(eq(3L), any())).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/student/print-synchronized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ordered").value(true))
+                .andExpect(jsonPath("$.students").value(3))
+                .andExpect(jsonPath("$.chunks").value(1));
+    }
+
+    private Student createStudent() {
+        final Long id = random.nextLong();
+        final String name = random.toString();
+        final int age = random.nextInt(1, 100);
+        final Faculty faculty = new Faculty();
+
+        Student student = new Student(name, age);
+        student.setId(id);
+        student.setFaculty(faculty);
+        return student;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package ru.hogwarts.school.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест страниц с курсором")
+public class CursorPageTest {
+
+    @Test
+    @DisplayName("курсор следующей страницы указывает на последний элемент")
+    public void testOf() {
+        assertThat(CursorPage.of(List.of(1L, 2L), 2, Long::longValue))
+                .isEqualTo(new CursorPage<>(List.of(1L, 2L), null));
+
+        CursorPage<Long> page = CursorPage.of(List.of(1L, 2L, 3L), 2, Long::longValue);
+
+        assertThat(page.items()).containsExactly(1L, 2L);
+        assertThat(CursorPage.decode(page.nextCursor(), 0, 2)).hasValue(2L);
+    }
+
+    @Test
+    @DisplayName("без курсора продолжаем после afterId")
+    public void testDecodeWithoutCursor() {
+        assertThat(CursorPage.decode(null, 42, 10)).hasValue(42L);
+        assertThat(CursorPage.decode(CursorPage.encodeCursor(7), 42, 10)).hasValue(7L);
+    }
+
+    @Test
+    @DisplayName("битый курсор и размер вне границ отклоняются")
+    public void testDecodeRejectsInvalid() {
+        assertThat(CursorPage.decode("not a cursor", 0, 10)).isEqualTo(OptionalLong.empty());
+        assertThat(CursorPage.decode(CursorPage.encodeCursor(7).substring(1), 0, 10)).isEmpty();
+        assertThat(CursorPage.decode(null, 0, 0)).isEmpty();
+        assertThat(CursorPage.decode(null, 0, CursorPage.MAX_SIZE + 1)).isEmpty();
+        assertThat(CursorPage.decode(null, 0, CursorPage.MAX_SIZE)).hasValue(0L);
+    }
+}
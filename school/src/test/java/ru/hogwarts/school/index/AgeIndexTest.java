@@ -0,0 +1,107 @@
+package ru.hogwarts.school.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест индекса студентов по возрасту")
+public class AgeIndexTest {
+
+    private final AgeIndex index = new AgeIndex();
+
+    @Test
+    @DisplayName("повторное добавление не дублирует id")
+    public void testDuplicateAdd() {
+        index.add(12, 5);
+        index.add(12, 5);
+        index.add(12, 3);
+        index.add(12, 3);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.idsBetween(12, 12)).containsExactly(3, 5);
+    }
+
+    @Test
+    @DisplayName("удаление отсутствующего id или возраста ничего не меняет")
+    public void testRemoveAbsent() {
+        index.add(12, 5);
+
+        index.remove(12, 6);
+        index.remove(13, 5);
+        index.remove(Integer.MIN_VALUE, 5);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.idsBetween(12, 12)).containsExactly(5);
+
+        index.remove(12, 5);
+        index.remove(12, 5);
+        assertThat(index.size()).isZero();
+        assertThat(index.idsBetween(12, 12)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("корзина растёт и хранит id отсортированными при добавлении в любом порядке")
+    public void testBucketGrowth() {
+        for (long id = 100; id > 0; id -= 2) {
+            index.add(15, id);
+        }
+        for (long id = 1; id < 100; id += 2) {
+            index.add(15, id);
+        }
+
+        assertThat(index.size()).isEqualTo(100);
+        assertThat(index.idsBetween(15, 15)).containsExactly(LongStream.rangeClosed(1, 100).toArray());
+
+        for (long id = 1; id <= 100; id += 3) {
+            index.remove(15, id);
+        }
+        assertThat(index.idsBetween(15, 15))
+                .containsExactly(LongStream.rangeClosed(1, 100).filter(id -> (id - 1) % 3 != 0).toArray());
+    }
+
+    @Test
+    @DisplayName("границы диапазона включаются, результат упорядочен по возрасту и id")
+    public void testInclusiveBounds() {
+        index.add(11, 7);
+        index.add(12, 2);
+        index.add(13, 9);
+        index.add(14, 1);
+        index.add(12, 1);
+
+        assertThat(index.idsBetween(12, 13)).containsExactly(1, 2, 9);
+        assertThat(index.countBetween(12, 13)).isEqualTo(3);
+        assertThat(index.idsBetween(11, 14)).containsExactly(7, 1, 2, 9, 1);
+        assertThat(index.idsBetween(10, 11)).containsExactly(7);
+        assertThat(index.idsBetween(14, 20)).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("максимальный возраст Integer.MAX_VALUE не переполняет верхнюю границу")
+    public void testMaxAgeIntegerMaxValue() {
+        index.add(Integer.MAX_VALUE, 1);
+        index.add(Integer.MIN_VALUE, 2);
+        index.add(0, 3);
+
+        assertThat(index.idsBetween(0, Integer.MAX_VALUE)).containsExactly(3, 1);
+        assertThat(index.idsBetween(Integer.MAX_VALUE, Integer.MAX_VALUE)).containsExactly(1);
+        assertThat(index.countBetween(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("пустые диапазоны")
+    public void testEmptyRanges() {
+        assertThat(index.idsBetween(0, 100)).isEmpty();
+
+        index.add(12, 1);
+        index.add(15, 2);
+
+        assertThat(index.idsBetween(13, 14)).isEmpty();
+        assertThat(index.idsBetween(16, 100)).isEmpty();
+        assertThat(index.idsBetween(1, 11)).isEmpty();
+        assertThat(index.idsBetween(15, 12)).isEmpty();
+        assertThat(index.countBetween(15, 12)).isZero();
+    }
+}
@@ -0,0 +1,153 @@
+package ru.hogwarts.school.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("тест индекса имён")
+public class NameIndexTest {
+
+    private final NameIndex index = new NameIndex();
+
+    @Test
+    @DisplayName("расстояние Левенштейна")
+    public void testDistance() {
+        assertThat(NameIndex.distance("harry", "harry", 2)).isZero();
+        assertThat(NameIndex.distance("harry", "hary", 2)).isEqualTo(1);
+        assertThat(NameIndex.distance("harry", "hraryy", 2)).isEqualTo(2);
+        assertThat(NameIndex.distance("", "abc", 3)).isEqualTo(3);
+        assertThat(NameIndex.distance("kitten", "sitting", 3)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("расстояние больше порога обрезается до maxDistance + 1")
+    public void testDistanceCutOff() {
+        // lengths differ too much, no table is computed
+        assertThat(NameIndex.distance("ron", "hermione", 2)).isEqualTo(3);
+        // same length, every row exceeds the bound early
+        assertThat(NameIndex.distance("aaaaaaaa", "bbbbbbbb", 2)).isEqualTo(3);
+        // the last row alone exceeds the bound
+        assertThat(NameIndex.distance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(NameIndex.distance("abc", "abd", 0)).isEqualTo(1);
+        assertThat(NameIndex.distance("abc", "abc", 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("совпадения ранжируются: точное, префикс, префикс слова, подстрока, опечатка")
+    public void testRanking() {
+        index.put(1, "Harry");
+        index.put(2, "Harry Potter");
+        index.put(3, "James Harryson");
+        index.put(4, "Sharry");
+        index.put(5, "Hary");
+
+        assertThat(index.search("harry", 10))
+                .extracting(NameIndex.Match::id, NameIndex.Match::kind)
+                .containsExactly(
+                        tuple(1L, MatchKind.EXACT),
+                        tuple(2L, MatchKind.PREFIX),
+                        tuple(3L, MatchKind.WORD_PREFIX),
+                        tuple(4L, MatchKind.SUBSTRING),
+                        tuple(5L, MatchKind.FUZZY));
+    }
+
+    @Test
+    @DisplayName("подстрока требует все триграммы подряд, а не только их наличие")
+    public void testSubstringNeedsContiguousMatch() {
+        index.put(1, "Xabcdx");
+        index.put(2, "Xabc bcdx");
+        for (long id = 10; id < 1000; id++) {
+            index.put(id, "Student " + id);
+        }
+
+        assertThat(index.search("abcd", 10)).extracting(NameIndex.Match::id).containsExactly(1L);
+        assertThat(index.search("udent 99", 10))
+                .extracting(NameIndex.Match::id)
+                .hasSize(10)
+                .isSubsetOf(99L, 990L, 991L, 992L, 993L, 994L, 995L, 996L, 997L, 998L, 999L);
+    }
+
+    @Test
+    @DisplayName("поиск подстроки останавливается, когда найдено достаточно кандидатов")
+    public void testSubstringStopsAtLimit() {
+        for (long id = 1; id <= 1000; id++) {
+            index.put(id, "Student " + id);
+        }
+
+        List<NameIndex.Match> matches = index.search("tuden", 5);
+
+        assertThat(matches).hasSize(5).allMatch(match -> match.kind() == MatchKind.SUBSTRING);
+    }
+
+    @Test
+    @DisplayName("опечатки находятся и в большом индексе, где все триграммы имён частые")
+    public void testFuzzyOnLargeIndex() {
+        String[] firstNames = {"Harry", "Hermione", "Ron", "Ginny", "Neville", "Luna", "Draco", "Cho"};
+        String[] lastNames = {"Potter", "Granger", "Weasley", "Longbottom", "Lovegood", "Malfoy", "Chang", "Finnigan"};
+        Random random = new Random(42);
+        for (long id = 1; id <= 100_000; id++) {
+            index.put(id, firstNames[random.nextInt(firstNames.length)] + " "
+                    + lastNames[random.nextInt(lastNames.length)] + " " + random.nextInt(100_000));
+        }
+
+        assertThat(index.search("hermoine", 10))
+                .hasSize(10)
+                .allMatch(match -> match.kind() == MatchKind.FUZZY && match.name().startsWith("Hermione "));
+        assertThat(index.search("longbotom", 10))
+                .hasSize(10)
+                .allMatch(match -> match.kind() == MatchKind.FUZZY && match.name().contains(" Longbottom "));
+        assertThat(index.search("lovegod", 10)).hasSize(10);
+        assertThat(index.search("weasly", 10)).hasSize(10);
+        assertThat(index.search("luna lovegod", 10))
+                .hasSize(10)
+                .allMatch(match -> match.name().startsWith("Luna Lovegood ") && match.distance() == 1);
+    }
+
+    @Test
+    @DisplayName("опечатка в одном из слов запроса")
+    public void testFuzzyMultipleWords() {
+        index.put(1, "Harry Potter");
+        index.put(2, "Harry Smith");
+        index.put(3, "Hary");
+
+        assertThat(index.search("harry poter", 10))
+                .extracting(NameIndex.Match::id, NameIndex.Match::kind, NameIndex.Match::distance)
+                .containsExactly(tuple(1L, MatchKind.FUZZY, 1));
+    }
+
+    @Test
+    @DisplayName("удаление и переименование убирают старые термы и триграммы")
+    public void testRemoveAndRename() {
+        index.put(1, "Harry Potter");
+        index.put(2, "Ron Weasley");
+
+        index.remove(1);
+        index.remove(1);
+        index.remove(42);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("harry", 10)).isEmpty();
+        assertThat(index.search("otte", 10)).isEmpty();
+
+        index.put(2, "Ginny Weasley");
+        assertThat(index.search("ron", 10)).isEmpty();
+        assertThat(index.search("ginny", 10)).extracting(NameIndex.Match::id).containsExactly(2L);
+        assertThat(index.search("easl", 10)).extracting(NameIndex.Match::id).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("пустые имена и запросы")
+    public void testBlank() {
+        index.put(1, "   ");
+        index.put(2, null);
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search(" ", 10)).isEmpty();
+        assertThat(index.search("harry", 0)).isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.hogwarts.school.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест отсортированного списка id")
+public class PostingsTest {
+
+    private final Postings postings = new Postings();
+
+    @Test
+    @DisplayName("id хранятся отсортированными и без повторов")
+    public void testAddKeepsOrder() {
+        assertThat(postings.add(5)).isTrue();
+        assertThat(postings.add(1)).isTrue();
+        assertThat(postings.add(9)).isTrue();
+        assertThat(postings.add(3)).isTrue();
+        assertThat(postings.add(5)).isFalse();
+
+        assertThat(postings.size()).isEqualTo(4);
+        assertThat(new long[]{postings.get(0), postings.get(1), postings.get(2), postings.get(3)})
+                .containsExactly(1, 3, 5, 9);
+
+        assertThat(postings.remove(3)).isTrue();
+        assertThat(postings.remove(3)).isFalse();
+        assertThat(postings.get(1)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("advance находит первый id не меньше цели")
+    public void testAdvance() {
+        for (long id = 0; id < 1000; id += 10) {
+            postings.add(id);
+        }
+
+        assertThat(postings.advance(0, 0)).isZero();
+        assertThat(postings.advance(0, 1)).isEqualTo(1);
+        assertThat(postings.advance(0, 10)).isEqualTo(1);
+        assertThat(postings.advance(5, 10)).isEqualTo(5);
+        assertThat(postings.advance(3, 555)).isEqualTo(56);
+        assertThat(postings.advance(0, 990)).isEqualTo(99);
+        assertThat(postings.advance(0, 991)).isEqualTo(100);
+        assertThat(postings.advance(100, 5)).isEqualTo(100);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.hogwarts.school.storage.ContentHash;
+import ru.hogwarts.school.storage.FileSystemAvatarStorage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("тест переноса содержимого аватаров из базы в хранилище")
+public class AvatarMigrationServiceTest {
+
+    private static final List<String> UNLINKED = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    private Path root;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private FileSystemAvatarStorage storage;
+    private AvatarMigrationService migrationService;
+
+    /**
+     * Stands in for PostgreSQL's {@code lo_unlink} and records the content of the unlinked object.
+     */
+    public static int loUnlink(Blob data) throws SQLException {
+        UNLINKED.add(new String(data.getBytes(1, (int) data.length()), StandardCharsets.UTF_8));
+        return 1;
+    }
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        UNLINKED.clear();
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE avatar (id BIGINT PRIMARY KEY, data BLOB, file_path VARCHAR(255), content_hash VARCHAR(64))");
+        jdbcTemplate.execute("CREATE ALIAS lo_unlink FOR \"" + AvatarMigrationServiceTest.class.getName() + ".loUnlink\"");
+        storage = new FileSystemAvatarStorage(root.toString());
+        migrationService = new AvatarMigrationService(jdbcTemplate, new DataSourceTransactionManager(database), storage);
+        ReflectionTestUtils.setField(migrationService, "batchSize", 2);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("содержимое переносится пачками, повторы хранятся один раз, большие объекты удаляются")
+    public void testMigratesInBatches() {
+        insert(1, "avatar 1");
+        insert(2, "avatar 2");
+        insert(3, "avatar 1");
+        insert(4, "avatar 4");
+        insert(5, "avatar 5");
+        String migrated = hash("already migrated");
+        jdbcTemplate.update("INSERT INTO avatar (id, data, content_hash) VALUES (6, NULL, ?)", migrated);
+
+        migrationService.migrate();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, data, content_hash FROM avatar ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("CONTENT_HASH")).containsExactly(
+                hash("avatar 1"), hash("avatar 2"), hash("avatar 1"), hash("avatar 4"), hash("avatar 5"), migrated);
+        assertThat(rows).allMatch(row -> row.get("DATA") == null);
+        assertThat(UNLINKED).containsExactlyInAnyOrder("avatar 1", "avatar 2", "avatar 1", "avatar 4", "avatar 5");
+        assertThat(List.of("avatar 1", "avatar 2", "avatar 4", "avatar 5"))
+                .allMatch(content -> storage.exists(hash(content)));
+    }
+
+    @Test
+    @DisplayName("повторный запуск ничего не делает")
+    public void testNothingToMigrate() {
+        migrationService.migrate();
+
+        insert(1, "avatar 1");
+        migrationService.migrate();
+        UNLINKED.clear();
+        migrationService.migrate();
+
+        assertThat(UNLINKED).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT content_hash FROM avatar WHERE id = 1", String.class))
+                .isEqualTo(hash("avatar 1"));
+    }
+
+    @Test
+    @DisplayName("файлы перенесённых аватаров удаляются, а путь к ним очищается")
+    public void testDeletesLegacyFiles(@TempDir Path legacyDir) throws IOException {
+        Path first = Files.writeString(legacyDir.resolve("1.png"), "avatar 1");
+        Path second = Files.writeString(legacyDir.resolve("2.png"), "avatar 2");
+        jdbcTemplate.update("INSERT INTO avatar (id, data, file_path) VALUES (1, ?, ?)",
+                "avatar 1".getBytes(StandardCharsets.UTF_8), first.toString());
+        jdbcTemplate.update("INSERT INTO avatar (id, data, file_path) VALUES (2, ?, ?)",
+                "avatar 2".getBytes(StandardCharsets.UTF_8), second.toString());
+        jdbcTemplate.update("INSERT INTO avatar (id, file_path, content_hash) VALUES (3, ?, ?)",
+                legacyDir.resolve("3.png").toString(), hash("avatar 3"));
+
+        migrationService.migrate();
+
+        assertThat(first).doesNotExist();
+        assertThat(second).doesNotExist();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM avatar WHERE file_path IS NOT NULL", Integer.class))
+                .isZero();
+        assertThat(storage.exists(hash("avatar 1"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("после удаления старых столбцов перенос пропускается")
+    public void testSkipsWithoutLegacyColumns() {
+        jdbcTemplate.execute("ALTER TABLE avatar DROP COLUMN data");
+        jdbcTemplate.execute("ALTER TABLE avatar DROP COLUMN file_path");
+
+        migrationService.migrate();
+
+        assertThat(UNLINKED).isEmpty();
+    }
+
+    private void insert(long id, String content) {
+        jdbcTemplate.update("INSERT INTO avatar (id, data) VALUES (?, ?)", id, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hash(String content) {
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(content.getBytes(StandardCharsets.UTF_8));
+        return ContentHash.toHex(digest);
+    }
+}
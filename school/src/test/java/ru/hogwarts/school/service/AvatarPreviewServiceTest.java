@@ -0,0 +1,130 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import ru.hogwarts.school.dto.AvatarPreview;
+import ru.hogwarts.school.metrics.SchoolMetrics;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.storage.AvatarStorage;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("тест сервиса превью аватаров")
+public class AvatarPreviewServiceTest {
+
+    private static final long STUDENT_ID = 1L;
+    private static final String HASH = "a".repeat(64);
+
+    private final AvatarRepository avatarRepository = mock(AvatarRepository.class);
+    private final AvatarStorage avatarStorage = mock(AvatarStorage.class);
+    private final ThumbnailGenerator thumbnailGenerator = spy(new ThumbnailGenerator(16_777_216));
+    private final Map<String, byte[]> variants = new HashMap<>();
+
+    private AvatarPreviewService avatarPreviewService;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        avatarPreviewService = new AvatarPreviewService(avatarRepository, avatarStorage, thumbnailGenerator,
+                mock(SchoolMetrics.class), 64 * 1024);
+
+        when(avatarRepository.findByStudentId(STUDENT_ID))
+                .thenReturn(Optional.of(new Avatar(HASH, "image/png", 0, new Student("Harry", 17))));
+        when(avatarStorage.load(HASH)).thenAnswer(invocation -> Optional.of(new ByteArrayResource(png(512, 512))));
+        doAnswer(invocation -> variants.put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(avatarStorage).storeVariant(eq(HASH), anyString(), any());
+        when(avatarStorage.loadVariant(eq(HASH), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(variants.get(invocation.<String>getArgument(1)))
+                        .map(ByteArrayResource::new));
+    }
+
+    @Test
+    @DisplayName("недостающие превью генерируются при первом запросе всех размеров сразу")
+    public void testGeneratesMissingPreviews() throws IOException {
+        for (PreviewSize size : PreviewSize.values()) {
+            AvatarPreview preview = avatarPreviewService.getPreview(STUDENT_ID, size);
+
+            assertThat(preview.mediaType()).isEqualTo(ThumbnailGenerator.MEDIA_TYPE);
+            assertThat(ImageIO.read(new ByteArrayInputStream(preview.data())).getWidth())
+                    .isEqualTo(size.getMaxDimension());
+        }
+
+        verify(thumbnailGenerator, times(1)).generate(any());
+        assertThat(variants).containsOnlyKeys("preview-small", "preview-medium", "preview-large");
+    }
+
+    @Test
+    @DisplayName("повторный запрос отдаётся из кэша, загрузка аватара сбрасывает записи студента")
+    public void testCachesAndEvicts() {
+        avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL);
+        avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL);
+
+        verify(avatarRepository, times(1)).findByStudentId(STUDENT_ID);
+        assertThat(avatarPreviewService.getCacheStats().hits()).isEqualTo(1);
+        assertThat(avatarPreviewService.getCacheStats().weight())
+                .isEqualTo(variants.get("preview-small").length);
+
+        avatarPreviewService.evict(STUDENT_ID);
+        avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL);
+
+        verify(avatarRepository, times(2)).findByStudentId(STUDENT_ID);
+    }
+
+    @Test
+    @DisplayName("превью старого аватара, прочитанное до сброса, не попадает в кэш")
+    public void testStalePreviewIsNotCached() {
+        String newHash = "b".repeat(64);
+        AtomicInteger reads = new AtomicInteger();
+        when(avatarRepository.findByStudentId(STUDENT_ID)).thenAnswer(invocation -> {
+            if (reads.getAndIncrement() > 0) {
+                return Optional.of(new Avatar(newHash, "image/png", 0, new Student("Harry", 17)));
+            }
+            // the new avatar is saved and the student's previews evicted while the old one is being read
+            avatarPreviewService.evict(STUDENT_ID);
+            return Optional.of(new Avatar(HASH, "image/png", 0, new Student("Harry", 17)));
+        });
+        when(avatarStorage.loadVariant(eq(newHash), anyString()))
+                .thenReturn(Optional.of(new ByteArrayResource(new byte[]{1})));
+
+        assertThat(avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL).contentHash()).isEqualTo(HASH);
+        assertThat(avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL).contentHash()).isEqualTo(newHash);
+        assertThat(avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.SMALL).contentHash()).isEqualTo(newHash);
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("не изображение отдаётся как оригинал")
+    public void testFallsBackToOriginal() {
+        byte[] original = "not an image".getBytes();
+        when(avatarStorage.load(HASH)).thenAnswer(invocation -> Optional.of(new ByteArrayResource(original)));
+
+        AvatarPreview preview = avatarPreviewService.getPreview(STUDENT_ID, PreviewSize.MEDIUM);
+
+        assertThat(preview.mediaType()).isEqualTo("image/png");
+        assertThat(preview.data()).isEqualTo(original);
+        assertThat(variants).isEmpty();
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
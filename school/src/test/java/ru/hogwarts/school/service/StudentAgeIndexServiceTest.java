@@ -0,0 +1,110 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.hogwarts.school.dto.StudentInfo;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("тест сервиса индекса по возрасту")
+public class StudentAgeIndexServiceTest {
+
+    private static final List<StudentInfo> STUDENTS = List.of(
+            new StudentInfo(1L, "Harry", 12, null),
+            new StudentInfo(2L, "Ron", 13, null));
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentAgeIndexService ageIndex = new StudentAgeIndexService(studentRepository, true);
+
+    @Test
+    @DisplayName("индекс строится из базы и следует за изменениями студентов")
+    public void testRebuildAndFollowChanges() {
+        stubStudents(() -> {
+        });
+
+        assertThat(ageIndex.isReady()).isFalse();
+        assertThatThrownBy(() -> ageIndex.idsBetween(12, 13)).isInstanceOf(IllegalStateException.class);
+
+        ageIndex.rebuild();
+
+        assertThat(ageIndex.isReady()).isTrue();
+        assertThat(ageIndex.idsBetween(12, 13)).containsExactly(1, 2);
+
+        ageIndex.onStudentChanged(new StudentChangedEvent(1L, state(12), state(14)));
+        ageIndex.onStudentChanged(new StudentChangedEvent(3L, null, state(12)));
+        ageIndex.onStudentChanged(new StudentChangedEvent(2L, state(13), null));
+
+        assertThat(ageIndex.idsBetween(12, 12)).containsExactly(3);
+        assertThat(ageIndex.idsBetween(13, 14)).containsExactly(1);
+        assertThat(ageIndex.countBetween(0, 100)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("запись во время построения отбрасывает индекс и запускает построение заново")
+    public void testRebuildRetriesAfterConcurrentWrite() {
+        AtomicInteger loads = new AtomicInteger();
+        stubStudents(() -> {
+            if (loads.getAndIncrement() == 0) {
+                ageIndex.onStudentChanged(new StudentChangedEvent(3L, null, state(12)));
+            }
+        });
+
+        ageIndex.rebuild();
+
+        assertThat(loads).hasValue(2);
+        assertThat(ageIndex.isReady()).isTrue();
+        assertThat(ageIndex.idsBetween(12, 13)).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("если студенты меняются при каждой попытке, запросы остаются на базе")
+    public void testRebuildGivesUpWhenWritesNeverStop() {
+        AtomicInteger loads = new AtomicInteger();
+        stubStudents(() -> ageIndex.onStudentChanged(
+                new StudentChangedEvent((long) loads.incrementAndGet() + 10, null, state(12))));
+
+        ageIndex.rebuild();
+
+        assertThat(loads).hasValue(3);
+        assertThat(ageIndex.isReady()).isFalse();
+    }
+
+    @Test
+    @DisplayName("выключенный индекс не строится")
+    public void testDisabled() {
+        StudentAgeIndexService disabled = new StudentAgeIndexService(studentRepository, false);
+
+        disabled.rebuild();
+        disabled.onStudentChanged(new StudentChangedEvent(1L, null, state(12)));
+
+        assertThat(disabled.isReady()).isFalse();
+        verifyNoInteractions(studentRepository);
+    }
+
+    /**
+     * Returns all students in the first chunk, running {@code duringLoad} while the index is being loaded.
+     */
+    private void stubStudents(Runnable duringLoad) {
+        when(studentRepository.findPageAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            duringLoad.run();
+            return STUDENTS;
+        });
+        when(studentRepository.findPageAfter(longThat(afterId -> afterId > 0), any(Pageable.class)))
+                .thenReturn(List.of());
+    }
+
+    private StudentState state(int age) {
+        return new StudentState("Student", age, null);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import ru.hogwarts.school.dto.StudentImportResult;
+import ru.hogwarts.school.event.StudentsImportedEvent;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("тест импорта студентов")
+public class StudentImportServiceTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final FacultyRepository facultyRepository = mock(FacultyRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final StudentImportService importService = new StudentImportService(entityManager, transactionManager,
+            facultyRepository, eventPublisher, new ObjectMapper(), 2);
+
+    @BeforeEach
+    public void beforeEach() {
+        Session session = mock(Session.class);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> mock(TransactionStatus.class));
+        when(facultyRepository.findAll()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("ошибка второй пачки останавливает импорт, а сохранённые студенты попадают в событие")
+    public void testFailedBatchStopsImport() throws IOException {
+        doNothing()
+                .doThrow(new PersistenceException("faculty was deleted"))
+                .when(entityManager).flush();
+
+        StudentImportResult result = importService.importStudents(ndjson(5), MediaType.APPLICATION_NDJSON);
+
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.completed()).isFalse();
+        assertThat(result.errors()).singleElement().asString()
+                .isEqualTo("Rows up to 4 could not be saved, import stopped: faculty was deleted");
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(4)).persist(any(Student.class));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(eventPublisher).publishEvent(new StudentsImportedEvent(2, Set.of()));
+    }
+
+    @Test
+    @DisplayName("обрыв чтения не сохраняет неполную пачку, но сообщает о сохранённых студентах")
+    public void testBrokenBodyKeepsCommittedBatches() {
+        InputStream body = new SequenceInputStream(ndjson(3), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> importService.importStudents(body, MediaType.APPLICATION_NDJSON))
+                .isInstanceOf(IOException.class);
+
+        verify(entityManager, times(1)).flush();
+        verify(eventPublisher).publishEvent(new StudentsImportedEvent(2, Set.of()));
+    }
+
+    private InputStream ndjson(int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            body.append("{\"name\":\"Student ").append(i).append("\",\"age\":").append(10 + i).append("}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
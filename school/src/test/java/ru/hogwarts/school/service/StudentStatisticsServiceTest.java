@@ -0,0 +1,135 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.hogwarts.school.dto.StudentStatistics;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.event.StudentState;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("тест статистики студентов")
+public class StudentStatisticsServiceTest {
+
+    private static final long GRYFFINDOR = 1L;
+    private static final long SLYTHERIN = 2L;
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentStatisticsService statisticsService = new StudentStatisticsService(studentRepository);
+
+    @BeforeEach
+    public void beforeEach() {
+        // two students of 12 in Gryffindor, one of 13 without a faculty
+        stubDatabase(List.of(row(12, 2L), row(13, 1L)), List.of(row(GRYFFINDOR, 2L), row(null, 1L)));
+    }
+
+    @Test
+    @DisplayName("статистика загружается из базы при первом обращении")
+    public void testLoadsOnFirstAccess() {
+        StudentStatistics statistics = statisticsService.getStatistics();
+
+        assertThat(statistics).isEqualTo(new StudentStatistics(3, 37, Map.of(GRYFFINDOR, 2L), 1, Map.of(12, 2L, 13, 1L)));
+        assertThat(statistics.getAverageAge()).isEqualTo(37.0 / 3);
+
+        statisticsService.getStatistics();
+        verify(studentRepository, times(1)).countByAge();
+    }
+
+    @Test
+    @DisplayName("добавление, изменение и удаление студента обновляют статистику без запросов к базе")
+    public void testFollowsChanges() {
+        statisticsService.reconcile();
+
+        statisticsService.onStudentChanged(new StudentChangedEvent(4L, null, new StudentState("Draco", 14, SLYTHERIN)));
+        assertThat(statisticsService.getStatistics())
+                .isEqualTo(new StudentStatistics(4, 51, Map.of(GRYFFINDOR, 2L, SLYTHERIN, 1L), 1,
+                        Map.of(12, 2L, 13, 1L, 14, 1L)));
+
+        statisticsService.onStudentChanged(new StudentChangedEvent(3L,
+                new StudentState("Luna", 13, null), new StudentState("Luna", 14, GRYFFINDOR)));
+        assertThat(statisticsService.getStatistics())
+                .isEqualTo(new StudentStatistics(4, 52, Map.of(GRYFFINDOR, 3L, SLYTHERIN, 1L), 0,
+                        Map.of(12, 2L, 14, 2L)));
+
+        statisticsService.onStudentChanged(new StudentChangedEvent(4L, new StudentState("Draco", 14, SLYTHERIN), null));
+        assertThat(statisticsService.getStatistics())
+                .isEqualTo(new StudentStatistics(3, 38, Map.of(GRYFFINDOR, 3L), 0, Map.of(12, 2L, 14, 1L)));
+
+        verify(studentRepository, times(1)).countByAge();
+    }
+
+    @Test
+    @DisplayName("сверка, во время которой студенты изменились, не затирает статистику устаревшими данными")
+    public void testRacingReconcileIsDiscarded() {
+        statisticsService.reconcile();
+        StudentStatistics draco = new StudentStatistics(4, 51, Map.of(GRYFFINDOR, 2L, SLYTHERIN, 1L), 1,
+                Map.of(12, 2L, 13, 1L, 14, 1L));
+        // the write lands after the reconcile has read the old rows
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statisticsService.onStudentChanged(
+                    new StudentChangedEvent(4L, null, new StudentState("Draco", 14, SLYTHERIN)));
+            return List.of(row(12, 2L), row(13, 1L));
+        });
+
+        statisticsService.reconcile();
+
+        assertThat(statisticsService.getStatistics()).isEqualTo(draco);
+
+        stubDatabase(List.of(row(12, 2L), row(13, 1L), row(14, 1L)),
+                List.of(row(GRYFFINDOR, 2L), row(SLYTHERIN, 1L), row(null, 1L)));
+        statisticsService.reconcile();
+
+        assertThat(statisticsService.getStatistics()).isEqualTo(draco);
+    }
+
+    @Test
+    @DisplayName("сверка исправляет статистику, разошедшуюся с базой")
+    public void testReconcileRepairsDrift() {
+        statisticsService.reconcile();
+        stubDatabase(List.<Object[]>of(row(12, 1L)), List.<Object[]>of(row(GRYFFINDOR, 1L)));
+
+        statisticsService.reconcile();
+
+        assertThat(statisticsService.getStatistics())
+                .isEqualTo(new StudentStatistics(1, 12, Map.of(GRYFFINDOR, 1L), 0, Map.of(12, 1L)));
+    }
+
+    @Test
+    @DisplayName("статистика загружается по ApplicationReadyEvent")
+    public void testLoadsOnApplicationReady() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(StudentRepository.class, () -> studentRepository);
+            context.register(StudentStatisticsService.class);
+            context.refresh();
+
+            verify(studentRepository, never()).countByAge();
+
+            context.publishEvent(new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ZERO));
+
+            verify(studentRepository, times(1)).countByAge();
+            verify(studentRepository, times(1)).countByFaculty();
+            assertThat(context.getBean(StudentStatisticsService.class).getStatistics().count()).isEqualTo(3);
+            verify(studentRepository, times(1)).countByAge();
+        }
+    }
+
+    private void stubDatabase(List<Object[]> byAge, List<Object[]> byFaculty) {
+        when(studentRepository.countByAge()).thenReturn(new ArrayList<>(byAge));
+        when(studentRepository.countByFaculty()).thenReturn(new ArrayList<>(byFaculty));
+    }
+
+    private static Object[] row(Object key, long students) {
+        return new Object[]{key, students};
+    }
+}
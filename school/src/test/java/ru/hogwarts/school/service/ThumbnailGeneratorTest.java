@@ -0,0 +1,121 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("тест генерации превью аватаров")
+public class ThumbnailGeneratorTest {
+
+    private final ThumbnailGenerator thumbnailGenerator = new ThumbnailGenerator(16_777_216);
+
+    @Test
+    @DisplayName("превью вписываются в размер с сохранением пропорций")
+    public void testScalesToEverySize() throws IOException {
+        Map<PreviewSize, byte[]> previews = thumbnailGenerator.generate(image(1000, 500, "png", BufferedImage.TYPE_INT_ARGB));
+
+        assertThat(previews).containsOnlyKeys(PreviewSize.values());
+        for (PreviewSize size : PreviewSize.values()) {
+            BufferedImage preview = read(previews.get(size));
+            assertThat(preview.getWidth()).isEqualTo(size.getMaxDimension());
+            assertThat(preview.getHeight()).isEqualTo(size.getMaxDimension() / 2);
+        }
+    }
+
+    @Test
+    @DisplayName("портретное изображение ограничивается по высоте")
+    public void testPortrait() throws IOException {
+        Map<PreviewSize, byte[]> previews = thumbnailGenerator.generate(image(300, 900, "jpeg", BufferedImage.TYPE_INT_RGB));
+
+        BufferedImage small = read(previews.get(PreviewSize.SMALL));
+        assertThat(small.getHeight()).isEqualTo(64);
+        // each size is scaled from the next larger one, so the width rounding accumulates
+        assertThat(small.getWidth()).isCloseTo(21, within(1));
+    }
+
+    @Test
+    @DisplayName("маленькое изображение не увеличивается")
+    public void testDoesNotUpscale() throws IOException {
+        Map<PreviewSize, byte[]> previews = thumbnailGenerator.generate(image(100, 40, "png", BufferedImage.TYPE_INT_RGB));
+
+        BufferedImage medium = read(previews.get(PreviewSize.MEDIUM));
+        BufferedImage large = read(previews.get(PreviewSize.LARGE));
+        assertThat(medium.getWidth()).isEqualTo(100);
+        assertThat(medium.getHeight()).isEqualTo(40);
+        assertThat(large.getWidth()).isEqualTo(100);
+        assertThat(read(previews.get(PreviewSize.SMALL)).getWidth()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("большое изображение декодируется с прореживанием и даёт превью нужного размера")
+    public void testSubsamplesLargeImage() throws IOException {
+        Map<PreviewSize, byte[]> previews = thumbnailGenerator.generate(image(3000, 1500, "png", BufferedImage.TYPE_INT_RGB));
+
+        BufferedImage large = read(previews.get(PreviewSize.LARGE));
+        assertThat(large.getWidth()).isEqualTo(256);
+        assertThat(large.getHeight()).isEqualTo(128);
+    }
+
+    @Test
+    @DisplayName("изображение больше лимита пикселей не получает превью")
+    public void testRejectsTooManyPixels() throws IOException {
+        ThumbnailGenerator limited = new ThumbnailGenerator(1000);
+
+        assertThat(limited.generate(image(100, 40, "png", BufferedImage.TYPE_INT_RGB))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("размеры из заголовка проверяются до декодирования")
+    public void testRejectsDeclaredDimensionsBeforeDecoding() throws IOException {
+        // a few dozen bytes declaring a 20000x20000 raster, decoding it would need more than a gigabyte
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(png);
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        ByteBuffer header = ByteBuffer.allocate(13).putInt(20_000).putInt(20_000).put(new byte[]{8, 2, 0, 0, 0});
+        chunk(out, "IHDR", header.array());
+        chunk(out, "IEND", new byte[0]);
+
+        assertThat(thumbnailGenerator.generate(new ByteArrayInputStream(png.toByteArray()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("не изображение — нет превью")
+    public void testNotAnImage() throws IOException {
+        assertThat(thumbnailGenerator.generate(new ByteArrayInputStream("not an image".getBytes()))).isEmpty();
+    }
+
+    private ByteArrayInputStream image(int width, int height, String format, int type) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private void chunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private BufferedImage read(byte[] jpeg) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+}
@@ -0,0 +1,139 @@
+package ru.hogwarts.school.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("тест защиты общего содержимого аватаров от удаления")
+public class AvatarContentGuardTest {
+
+    private static final byte[] CONTENT = "Harry Potter".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path root;
+
+    private final AvatarRepository avatarRepository = mock(AvatarRepository.class);
+    private final Set<String> referenced = ConcurrentHashMap.newKeySet();
+
+    private FileSystemAvatarStorage storage;
+    private AvatarContentGuard guard;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        storage = new FileSystemAvatarStorage(root.toString());
+        guard = new AvatarContentGuard(storage, avatarRepository);
+        when(avatarRepository.existsByContentHash(anyString()))
+                .thenAnswer(invocation -> referenced.contains(invocation.<String>getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("содержимое удаляется, только когда на него никто не ссылается")
+    public void testReleasesUnreferencedContent() throws IOException {
+        String hash = store();
+        referenced.add(hash);
+
+        assertThat(guard.release(hash)).isFalse();
+        assertThat(storage.exists(hash)).isTrue();
+
+        referenced.remove(hash);
+
+        assertThat(guard.release(hash)).isTrue();
+        assertThat(storage.exists(hash)).isFalse();
+        assertThat(guard.release(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("закреплённое содержимое удаляется последним откреплением")
+    public void testPinnedContentIsKept() throws IOException {
+        String hash = store();
+
+        assertThat(guard.pin(hash)).isTrue();
+        assertThat(guard.pin(hash)).isTrue();
+        guard.unpin(hash);
+
+        assertThat(guard.release(hash)).isFalse();
+        assertThat(storage.exists(hash)).isTrue();
+
+        guard.unpin(hash);
+        assertThat(storage.exists(hash)).isFalse();
+
+        guard.unpin(hash);
+        assertThat(guard.pin(hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("отложенное удаление не трогает содержимое, на которое сослались до открепления")
+    public void testDeferredReleaseKeepsReferencedContent() throws IOException {
+        String hash = store();
+
+        assertThat(guard.pin(hash)).isTrue();
+        assertThat(guard.release(hash)).isFalse();
+        referenced.add(hash);
+        guard.unpin(hash);
+
+        assertThat(storage.exists(hash)).isTrue();
+    }
+
+    @Test
+    @DisplayName("загрузка того же содержимого во время замены чужого аватара его не теряет")
+    public void testUploadRacingRelease() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                referenced.clear();
+                String hash = store();
+                CountDownLatch start = new CountDownLatch(1);
+
+                // another student replaces the avatar that used this content
+                Future<?> release = executor.submit(() -> {
+                    start.await();
+                    return guard.release(hash);
+                });
+                // while this student uploads the same content
+                Future<?> upload = executor.submit(() -> {
+                    start.await();
+                    String stored = store();
+                    if (!guard.pin(stored)) {
+                        store();
+                    }
+                    try {
+                        referenced.add(stored);
+                    } finally {
+                        guard.unpin(stored);
+                    }
+                    return null;
+                });
+                start.countDown();
+                release.get();
+                upload.get();
+
+                assertThat(storage.exists(hash)).as("content of iteration %d", i).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String store() throws IOException {
+        return storage.store(Channels.newChannel(new ByteArrayInputStream(CONTENT)), 1024).hash();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.hogwarts.school.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("тест файлового хранилища аватаров")
+public class FileSystemAvatarStorageTest {
+
+    private static final byte[] CONTENT = "Harry Potter".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path root;
+
+    private FileSystemAvatarStorage storage;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        storage = new FileSystemAvatarStorage(root.toString());
+    }
+
+    @Test
+    @DisplayName("содержимое сохраняется под своим SHA-256 и читается обратно")
+    public void testStoreAndLoad() throws IOException {
+        StoredContent content = storage.store(channel(CONTENT), 1024);
+
+        assertThat(content.hash()).isEqualTo(sha256(CONTENT));
+        assertThat(content.size()).isEqualTo(CONTENT.length);
+        assertThat(storage.exists(content.hash())).isTrue();
+        assertThat(storage.load(content.hash()).orElseThrow().getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("одинаковое содержимое хранится один раз")
+    public void testDeduplicates() throws IOException {
+        StoredContent first = storage.store(channel(CONTENT), 1024);
+        StoredContent second = storage.store(channel(CONTENT), 1024);
+        StoredContent other = storage.store(channel("Ron Weasley".getBytes(StandardCharsets.UTF_8)), 1024);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other.hash()).isNotEqualTo(first.hash());
+        try (Stream<Path> files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(2);
+        }
+    }
+
+    @Test
+    @DisplayName("слишком большое содержимое не сохраняется и не оставляет временных файлов")
+    public void testTooLarge() throws IOException {
+        assertThatThrownBy(() -> storage.store(channel(CONTENT), CONTENT.length - 1))
+                .isInstanceOf(ContentTooLargeException.class);
+
+        assertThat(storage.exists(sha256(CONTENT))).isFalse();
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("удаление убирает содержимое вместе с вариантами")
+    public void testDeleteRemovesVariants() throws IOException {
+        String hash = storage.store(channel(CONTENT), 1024).hash();
+        storage.storeVariant(hash, "thumb-64", new byte[]{1, 2, 3});
+
+        assertThat(storage.loadVariant(hash, "thumb-64").orElseThrow().getContentAsByteArray())
+                .containsExactly(1, 2, 3);
+
+        storage.delete(hash);
+        storage.delete(hash);
+
+        assertThat(storage.exists(hash)).isFalse();
+        assertThat(storage.load(hash)).isEmpty();
+        assertThat(storage.loadVariant(hash, "thumb-64")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("некорректный хеш и имя варианта отклоняются")
+    public void testRejectsInvalidKeys() {
+        assertThatThrownBy(() -> storage.load("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.loadVariant(sha256(CONTENT), "../x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Stream<Path> tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            return files.toList().stream();
+        }
+    }
+
+    private static ReadableByteChannel channel(byte[] data) {
+        return Channels.newChannel(new ByteArrayInputStream(data));
+    }
+
+    private static String sha256(byte[] data) {
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(data);
+        return ContentHash.toHex(digest);
+    }
+}
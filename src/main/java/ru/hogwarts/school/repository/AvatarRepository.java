@@ -1,12 +0,0 @@
-package ru.hogwarts.school.repository;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-import ru.hogwarts.school.model.Avatar;
-
-import java.util.Optional;
-
-@Repository
-public interface AvatarRepository extends JpaRepository<Avatar, Long> {
-    Optional<Avatar> findByStudentId(Long studentId);
-}
\ No newline at end of file
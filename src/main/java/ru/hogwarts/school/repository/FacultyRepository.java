@@ -1,14 +0,0 @@
-package ru.hogwarts.school.repository;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-import ru.hogwarts.school.model.Faculty;
-
-import java.util.Collection;
-
-@Repository
-public interface FacultyRepository extends JpaRepository<Faculty, Long> {
-    Collection<Faculty> findFacultiesByColorIgnoreCaseOrNameIgnoreCase(String color, String name);
-
-    Faculty findFacultyByNameIgnoreCase(String name);
-}
\ No newline at end of file